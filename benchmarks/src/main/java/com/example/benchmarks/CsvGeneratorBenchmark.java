@@ -0,0 +1,33 @@
+package com.example.benchmarks;
+
+import com.example.util.CsvDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CsvDataGenerator output cost from 1K to 10M rows.
+ * The 10M case builds a multi-hundred-MB String; run it with a large heap (-Xmx4g).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class CsvGeneratorBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int rows;
+
+    @Benchmark
+    public String generateSalesData() throws IOException {
+        return CsvDataGenerator.generateSalesData(rows);
+    }
+
+    @Benchmark
+    public String generateEmployeeData() throws IOException {
+        return CsvDataGenerator.generateEmployeeData(rows);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmarks;
+
+import com.example.service.DuckDBService;
+import com.example.util.CsvDataGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DuckDBService.loadCsvFromFile vs loadCsvFromStream vs appendRows on the same sales dataset.
+ * The stream variant stands in for a MinIO GET with an in-memory stream; the append
+ * variant feeds typed rows through the native appender with no CSV text at all.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class LoadBenchmark {
+
+    private static final LocalDate BASE_DATE = LocalDate.of(2024, 1, 31);
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private DuckDBService duckDBService;
+    private Path csvFile;
+    private byte[] csvBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        duckDBService = new DuckDBService();
+        // Large scans cross the slow-query threshold by design; profiling re-runs would skew the numbers
+        duckDBService.setSlowQueryThresholdMillis(Long.MAX_VALUE);
+        csvFile = Files.createTempFile("bench_sales_", ".csv");
+        String csv = CsvDataGenerator.generateSalesData(rows);
+        Files.writeString(csvFile, csv);
+        csvBytes = csv.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Invocation)
+    public void dropTable() throws SQLException {
+        duckDBService.dropTable("sales");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        duckDBService.close();
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public void loadCsvFromFile() throws SQLException {
+        duckDBService.loadCsvFromFile("sales", csvFile.toString());
+    }
+
+    @Benchmark
+    public long appendRows() throws SQLException {
+        duckDBService.createTable("sales", CsvDataGenerator.SALES_COLUMNS);
+        return duckDBService.appendRows("sales", CsvDataGenerator.salesRows(rows, 42, BASE_DATE));
+    }
+
+    @Benchmark
+    public void loadCsvFromStream() throws Exception {
+        duckDBService.loadCsvFromStream("sales", new ByteArrayInputStream(csvBytes), null);
+    }
+}
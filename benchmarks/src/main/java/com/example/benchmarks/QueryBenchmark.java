@@ -0,0 +1,118 @@
+package com.example.benchmarks;
+
+import com.example.service.ColumnarResult;
+import com.example.service.DuckDBService;
+import com.example.service.QueryCursor;
+import com.example.util.CsvDataGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query hot paths of DuckDBService over a loaded sales table:
+ * row materialization, streaming, CSV and Arrow export, columnar results and the aggregate/join helpers.
+ * Arrow needs java.nio opened to its memory module on recent JDKs.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "--add-opens=java.base/java.nio=ALL-UNNAMED")
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class QueryBenchmark {
+    private static final String SCAN = "SELECT * FROM sales";
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private DuckDBService duckDBService;
+    private Path exportFile;
+    private Path arrowFile;
+    private PrintStream originalOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        duckDBService = new DuckDBService();
+        // Large scans cross the slow-query threshold by design; profiling re-runs would skew the numbers
+        duckDBService.setSlowQueryThresholdMillis(Long.MAX_VALUE);
+        Path csvFile = Files.createTempFile("bench_sales_", ".csv");
+        Files.writeString(csvFile, CsvDataGenerator.generateSalesData(rows));
+        duckDBService.loadCsvFromFile("sales", csvFile.toString());
+        Files.delete(csvFile);
+
+        // Dimension table keyed like sales.product for the join helper
+        duckDBService.executeUpdate(
+            "CREATE TABLE products AS SELECT DISTINCT product, length(product) AS name_length FROM sales"
+        );
+        exportFile = Files.createTempFile("bench_export_", ".csv");
+        arrowFile = Files.createTempFile("bench_export_", ".arrow");
+
+        // executeAggregateQuery prints its rows; keep console I/O out of the measurement
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        duckDBService.close();
+        Files.deleteIfExists(exportFile);
+        Files.deleteIfExists(arrowFile);
+    }
+
+    @Benchmark
+    public List<String[]> executeQuery() throws SQLException {
+        return duckDBService.executeQuery(SCAN);
+    }
+
+    @Benchmark
+    public void streamQuery(Blackhole blackhole) throws SQLException {
+        try (QueryCursor cursor = duckDBService.streamQuery(SCAN)) {
+            while (cursor.hasNext()) {
+                blackhole.consume(cursor.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void executeQueryToCSV() throws Exception {
+        duckDBService.executeQueryToCSV(SCAN, exportFile.toString());
+    }
+
+    @Benchmark
+    public long exportQueryToArrow(Blackhole blackhole) throws Exception {
+        return duckDBService.exportQueryToArrow(SCAN, blackhole::consume);
+    }
+
+    @Benchmark
+    public long exportQueryToArrowFile() throws Exception {
+        return duckDBService.exportQueryToArrowFile(SCAN, arrowFile.toString());
+    }
+
+    @Benchmark
+    public ColumnarResult executeColumnarQuery() throws SQLException {
+        return duckDBService.executeColumnarQuery(SCAN);
+    }
+
+    @Benchmark
+    public void executeAggregateQuery() throws SQLException {
+        duckDBService.executeAggregateQuery("sales", "customer_name", "price");
+    }
+
+    @Benchmark
+    public void joinTables(Blackhole blackhole) throws SQLException {
+        try (QueryCursor cursor = duckDBService.joinTables("sales", "products", "product")) {
+            while (cursor.hasNext()) {
+                blackhole.consume(cursor.next());
+            }
+        }
+    }
+}
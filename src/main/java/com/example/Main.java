@@ -1,13 +1,33 @@
 package com.example;
 
+import com.example.cache.LocalTableCache;
+import com.example.cache.QueryResultCache;
+import com.example.catalog.CatalogEntry;
+import com.example.catalog.LakeCatalog;
+import com.example.config.DuckDBConfig;
 import com.example.config.MinioConfig;
+import com.example.ingest.IncrementalLoader;
+import com.example.ingest.IngestionWorker;
+import com.example.ingest.LocalEventSource;
+import com.example.ingest.ParquetCompactor;
+import com.example.ingest.PartitionedDataset;
+import com.example.ingest.QueryExporter;
+import com.example.metrics.LakeMetrics;
+import com.example.metrics.OperationMetrics;
+import com.example.server.QueryServer;
+import com.example.service.CsvCompression;
 import com.example.service.DuckDBService;
+import com.example.service.ExportFormat;
 import com.example.service.MinioService;
+import com.example.service.TransferStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Data Lake Application - MinIO + DuckDB
@@ -15,6 +35,8 @@ import java.util.List;
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
+    private static final long TABLE_CACHE_BUDGET_BYTES = 1024L * 1024 * 1024;
+    private static final int QUERY_SERVER_PORT = 8080;
 
     public static void main(String[] args) {
         System.out.println("=================================================");
@@ -25,7 +47,17 @@ public class Main {
             // Initialize services
             MinioConfig config = MinioConfig.getDefaultConfig();
             MinioService minioService = new MinioService(config);
-            DuckDBService duckDBService = new DuckDBService();
+            // CSV objects are stored gzip-compressed (sales/sales_data.csv.gz) and read compressed
+            minioService.setCsvCompression(CsvCompression.GZIP);
+            DuckDBService duckDBService = new DuckDBService(DuckDBConfig.fromEnvironment());
+            enableInPlaceQueries(config, duckDBService);
+            LakeCatalog catalog = new LakeCatalog(minioService, duckDBService);
+            LocalTableCache tableCache = new LocalTableCache(
+                minioService, duckDBService,
+                Path.of(System.getProperty("java.io.tmpdir"), "data-lake-cache"), TABLE_CACHE_BUDGET_BYTES
+            );
+            QueryResultCache resultCache = new QueryResultCache(duckDBService, catalog);
+            minioService.addObjectChangeListener(resultCache);
 
             // Demo 1: Create and upload sample CSV data
             System.out.println("--- DEMO 1: Upload CSV Data to MinIO ---");
@@ -33,18 +65,37 @@ public class Main {
 
             // Demo 2: List files in MinIO
             System.out.println("\n--- DEMO 2: List CSV Files in MinIO ---");
-            listMinioFiles(minioService);
+            listMinioFiles(catalog);
 
-            // Demo 3: Query CSV data with DuckDB
-            System.out.println("\n--- DEMO 3: Query CSV Data with DuckDB ---");
-            queryCsvWithDuckDB(minioService, duckDBService);
+            // Demo 3: Compact CSV data to Parquet
+            System.out.println("\n--- DEMO 3: Compact CSV Data to Parquet ---");
+            compactToParquet(minioService, duckDBService, catalog);
 
-            // Demo 4: Advanced queries
-            System.out.println("\n--- DEMO 4: Advanced Analytics with DuckDB ---");
-            advancedAnalytics(minioService, duckDBService);
+            // Demo 4: Query CSV data with DuckDB
+            System.out.println("\n--- DEMO 4: Query CSV Data with DuckDB ---");
+            queryCsvWithDuckDB(minioService, duckDBService, catalog, tableCache, resultCache);
+
+            // Demo 5: Advanced queries
+            System.out.println("\n--- DEMO 5: Advanced Analytics with DuckDB ---");
+            advancedAnalytics(minioService, duckDBService, catalog, tableCache, resultCache);
+            logger.info("Query result cache: {}", resultCache.getStats());
+
+            // Demo 6: Event-driven ingestion
+            System.out.println("\n--- DEMO 6: Event-Driven Ingestion ---");
+            eventDrivenIngestion(minioService, duckDBService);
+
+            for (OperationMetrics operation : LakeMetrics.global().getOperations()) {
+                logger.info("Metrics {}", operation);
+            }
+
+            // With --serve [port], keep the loaded tables warm and answer queries over HTTP
+            if (args.length > 0 && "--serve".equals(args[0])) {
+                serveQueries(duckDBService, args.length > 1 ? Integer.parseInt(args[1]) : QUERY_SERVER_PORT);
+            }
 
             // Cleanup
             duckDBService.close();
+            minioService.close();
             System.out.println("\n=================================================");
             System.out.println("   Data Lake Demo Completed Successfully!");
             System.out.println("=================================================");
@@ -88,11 +139,9 @@ public class Main {
             """;
 
         // Upload to MinIO
-        minioService.uploadCsvContent("sales/sales_data.csv", salesCsv);
-        System.out.println("✓ Uploaded sales_data.csv");
+        System.out.println("✓ Uploaded " + minioService.uploadCsvContent("sales/sales_data.csv", salesCsv));
 
-        minioService.uploadCsvContent("products/products_data.csv", productsCsv);
-        System.out.println("✓ Uploaded products_data.csv");
+        System.out.println("✓ Uploaded " + minioService.uploadCsvContent("products/products_data.csv", productsCsv));
 
         // Create a larger dataset for analytics
         StringBuilder largeCsv = new StringBuilder();
@@ -102,85 +151,149 @@ public class Main {
             largeCsv.append(String.format("%d,Employee_%d,%d,%s,%d\n",
                 i, i, 20 + (i % 40), cities[i % 5], 5000000 + (i * 100000)));
         }
-        minioService.uploadCsvContent("employees/employees_data.csv", largeCsv.toString());
-        System.out.println("✓ Uploaded employees_data.csv (100 records)");
+        String employeesObject = minioService.uploadCsvContent("employees/employees_data.csv", largeCsv.toString());
+        System.out.println("✓ Uploaded " + employeesObject + " (100 records)");
     }
 
     /**
      * List all CSV files in MinIO
      */
-    private static void listMinioFiles(MinioService minioService) {
-        List<String> files = minioService.listCsvFiles();
+    private static void listMinioFiles(LakeCatalog catalog) throws Exception {
+        catalog.refresh("");
+        List<String> files = catalog.list("", ".csv");
         System.out.println("CSV files in MinIO Data Lake:");
         for (String file : files) {
-            System.out.println("  - " + file);
+            long size = catalog.get(file).map(CatalogEntry::size).orElse(0L);
+            System.out.println("  - " + file + " (" + size + " bytes)");
         }
         System.out.println("Total files: " + files.size());
     }
 
     /**
-     * Query CSV data using DuckDB
+     * Convert uploaded CSV prefixes to Parquet copies
      */
-    private static void queryCsvWithDuckDB(MinioService minioService, DuckDBService duckDBService) throws Exception {
-        // Download CSV from MinIO and load into DuckDB
-        File tempFile = File.createTempFile("sales_", ".csv");
-        tempFile.deleteOnExit();
+    private static void compactToParquet(MinioService minioService, DuckDBService duckDBService,
+                                         LakeCatalog catalog) throws Exception {
+        ParquetCompactor compactor = new ParquetCompactor(minioService, duckDBService);
+        for (String prefix : new String[]{"sales/", "products/", "employees/"}) {
+            for (String parquetObject : compactor.compactPrefix(prefix)) {
+                System.out.println("✓ Compacted to " + parquetObject);
+            }
+            catalog.refresh(prefix);
+        }
+    }
+
+    /**
+     * Let DuckDB read objects straight from MinIO; falls back to temp-file downloads
+     * when the httpfs extension is unavailable
+     */
+    private static void enableInPlaceQueries(MinioConfig config, DuckDBService duckDBService) {
+        try {
+            duckDBService.configureObjectStore(config);
+        } catch (Exception e) {
+            logger.warn("In-place S3 queries unavailable, falling back to local download: {}", e.getMessage());
+        }
+    }
 
-        try (InputStream is = minioService.getCsvFileStream("sales/sales_data.csv");
-             FileOutputStream fos = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = is.read(buffer)) != -1) {
-                fos.write(buffer, 0, bytesRead);
+    /**
+     * Load a CSV object into a DuckDB table, preferring its Parquet copy while it matches the CSV's
+     * current ETag and reading in place when possible
+     */
+    private static void loadLakeObject(MinioService minioService, DuckDBService duckDBService, LakeCatalog catalog,
+                                       String tableName, String objectName) throws Exception {
+        String parquetObject = ParquetCompactor.parquetObjectName(objectName);
+        String csvEtag = catalog.get(objectName).map(CatalogEntry::etag).orElse(null);
+        boolean parquet = catalog.exists(parquetObject);
+        if (parquet && !new ParquetCompactor(minioService, duckDBService).isCopyCurrent(objectName, csvEtag)) {
+            logger.info("{} is stale for {}, reading the CSV", parquetObject, objectName);
+            parquet = false;
+        }
+        String sourceObject = parquet ? parquetObject : objectName;
+        long start = System.nanoTime();
+
+        if (duckDBService.isObjectStoreConfigured()) {
+            if (parquet) {
+                duckDBService.loadParquetFromObjectStore(tableName, sourceObject);
+            } else {
+                duckDBService.loadCsvFromObjectStore(tableName, sourceObject);
             }
+            logger.info("{} read in place (ready to query after {} ms)",
+                sourceObject, (System.nanoTime() - start) / 1_000_000);
+            return;
         }
 
+        // Download from MinIO in parallel ranges and load into DuckDB
+        File tempFile = File.createTempFile(tableName + "_", parquet ? ".parquet" : CsvCompression.fileExtension(objectName));
+        tempFile.deleteOnExit();
+        TransferStats stats = minioService.downloadParallel(sourceObject, tempFile.toPath());
+
+        if (parquet) {
+            duckDBService.loadParquetFromFile(tableName, tempFile.getAbsolutePath());
+        } else {
+            duckDBService.loadCsvFromFile(tableName, tempFile.getAbsolutePath());
+        }
+        logger.info("{} (ready to query after {} ms)", stats, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Query CSV data using DuckDB
+     */
+    private static void queryCsvWithDuckDB(MinioService minioService, DuckDBService duckDBService,
+                                           LakeCatalog catalog, LocalTableCache tableCache,
+                                           QueryResultCache resultCache) throws Exception {
         // Load into DuckDB
-        duckDBService.loadCsvFromFile("sales", tempFile.getAbsolutePath());
+        tableCache.load("sales", minioService.csvObjectName("sales/sales_data.csv"),
+            (table, object) -> loadLakeObject(minioService, duckDBService, catalog, table, object));
+        resultCache.registerSource("sales", "sales/");
 
         // Execute queries
         System.out.println("\nQuery 1: All sales records");
         duckDBService.printQueryResults("SELECT * FROM sales LIMIT 5");
 
+        // Report queries are answered from the result cache until sales/ changes
         System.out.println("\nQuery 2: Total sales by customer");
-        duckDBService.printQueryResults(
+        printRows(resultCache.executeQuery(
             "SELECT customer_name, COUNT(*) as total_orders, SUM(quantity * price) as total_amount " +
             "FROM sales GROUP BY customer_name ORDER BY total_amount DESC"
-        );
+        ));
 
         System.out.println("\nQuery 3: Sales by product");
-        duckDBService.printQueryResults(
+        printRows(resultCache.executeQuery(
             "SELECT product, SUM(quantity) as total_quantity, SUM(quantity * price) as total_revenue " +
             "FROM sales GROUP BY product ORDER BY total_revenue DESC"
+        ));
+
+        // Partition sales by day so date-bounded reports only read matching objects
+        PartitionedDataset partitionedSales = new PartitionedDataset(minioService, duckDBService, "sales_partitioned/");
+        partitionedSales.write("SELECT * FROM sales", "order_date");
+
+        System.out.println("\nQuery 4: Recent sales (partition pruned)");
+        List<String> partitions = partitionedSales.load("recent_sales", "order_date >= '2024-01-20'");
+        System.out.println("Read " + partitions.size() + " partition objects");
+        duckDBService.printQueryResults(
+            "SELECT order_date, COUNT(*) as orders, SUM(quantity * price) as revenue " +
+            "FROM recent_sales GROUP BY order_date ORDER BY order_date"
         );
     }
 
     /**
      * Advanced analytics with DuckDB
      */
-    private static void advancedAnalytics(MinioService minioService, DuckDBService duckDBService) throws Exception {
+    private static void advancedAnalytics(MinioService minioService, DuckDBService duckDBService,
+                                          LakeCatalog catalog, LocalTableCache tableCache,
+                                          QueryResultCache resultCache) throws Exception {
         // Load employees data
-        File tempFile = File.createTempFile("employees_", ".csv");
-        tempFile.deleteOnExit();
-
-        try (InputStream is = minioService.getCsvFileStream("employees/employees_data.csv");
-             FileOutputStream fos = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = is.read(buffer)) != -1) {
-                fos.write(buffer, 0, bytesRead);
-            }
-        }
-
-        duckDBService.loadCsvFromFile("employees", tempFile.getAbsolutePath());
+        tableCache.load("employees", minioService.csvObjectName("employees/employees_data.csv"),
+            (table, object) -> loadLakeObject(minioService, duckDBService, catalog, table, object));
+        resultCache.registerSource("employees", "employees/");
 
         // Advanced queries
         System.out.println("\nAdvanced Query 1: Average salary by city");
-        duckDBService.printQueryResults(
+        printRows(resultCache.executeQuery(
             "SELECT city, COUNT(*) as employee_count, " +
             "AVG(salary) as avg_salary, MIN(salary) as min_salary, MAX(salary) as max_salary " +
             "FROM employees GROUP BY city ORDER BY avg_salary DESC"
-        );
+        ));
 
         System.out.println("\nAdvanced Query 2: Age distribution");
         duckDBService.printQueryResults(
@@ -200,16 +313,81 @@ public class Main {
             "SELECT name, city, age, salary FROM employees ORDER BY salary DESC LIMIT 10"
         );
 
-        // Export query results back to MinIO
-        File exportFile = File.createTempFile("analytics_", ".csv");
-        exportFile.deleteOnExit();
-
-        duckDBService.executeQueryToCSV(
+        // Export query results back to MinIO in one COPY, without a local CSV round trip
+        QueryExporter exporter = new QueryExporter(minioService, duckDBService);
+        exporter.export(
             "SELECT city, AVG(salary) as avg_salary FROM employees GROUP BY city",
-            exportFile.getAbsolutePath()
+            "analytics/city_salary_summary.csv",
+            ExportFormat.CSV
         );
-
-        minioService.uploadCsvFile("analytics/city_salary_summary.csv", exportFile);
         System.out.println("\n✓ Exported analytics results to MinIO: analytics/city_salary_summary.csv");
+
+        // Columnar copy for Arrow consumers, streamed from DuckDB into the upload
+        long arrowRows = exporter.exportArrow("SELECT * FROM employees", "analytics/employees.arrow");
+        System.out.println("✓ Exported " + arrowRows + " employee rows to MinIO as Arrow: analytics/employees.arrow");
+    }
+
+    /**
+     * Ingest objects as they are uploaded. In-process uploads stand in for bucket
+     * notifications here; a deployment would use BucketNotificationSource or PollingEventSource.
+     */
+    private static void eventDrivenIngestion(MinioService minioService, DuckDBService duckDBService) throws Exception {
+        LocalEventSource events = new LocalEventSource();
+        minioService.addObjectChangeListener(events);
+        try (IngestionWorker worker = new IngestionWorker(events)) {
+            worker.register(new IncrementalLoader(minioService, duckDBService, "orders", "orders/", ".csv", "order_id"));
+            worker.start();
+
+            minioService.uploadCsvContent("orders/2024-02-01.csv", """
+                order_id,product,quantity
+                101,Laptop,1
+                102,Mouse,4
+                """);
+            minioService.uploadCsvContent("orders/2024-02-02.csv", """
+                order_id,product,quantity
+                102,Mouse,5
+                103,Monitor,2
+                """);
+
+            worker.awaitIdle(Duration.ofSeconds(30));
+            duckDBService.printQueryResults("SELECT * FROM orders ORDER BY order_id");
+        } finally {
+            minioService.removeObjectChangeListener(events);
+        }
+    }
+
+    /**
+     * Serve queries against the loaded tables until the JVM is asked to stop.
+     * The shutdown hook waits for the calling thread, so the server and the services it closes
+     * afterwards (including the file database's checkpoint) shut down before the JVM halts.
+     */
+    private static void serveQueries(DuckDBService duckDBService, int port) throws Exception {
+        CountDownLatch stopped = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        try (QueryServer server = new QueryServer(duckDBService, port)) {
+            server.start();
+            System.out.println("\nServing queries: curl -d 'SELECT * FROM sales' http://localhost:" + port + "/query");
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                stopped.countDown();
+                try {
+                    caller.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            stopped.await();
+        }
+    }
+
+    /**
+     * Print materialized query rows (header row first)
+     */
+    private static void printRows(List<String[]> rows) {
+        System.out.println(String.join(" | ", rows.get(0)));
+        System.out.println("-".repeat(80));
+        for (String[] row : rows.subList(1, rows.size())) {
+            System.out.println(String.join(" | ", row));
+        }
+        System.out.println("\nTotal rows: " + (rows.size() - 1));
     }
-}
\ No newline at end of file
+}
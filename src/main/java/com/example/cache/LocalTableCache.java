@@ -0,0 +1,161 @@
+package com.example.cache;
+
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import com.example.service.ObjectInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Local Parquet cache of loaded lake tables, keyed by bucket/object/ETag.
+ * A warm load costs one stat call plus a local Parquet read instead of a download and CSV parse.
+ * Files are evicted least-recently-used first (by modification time, touched on every hit)
+ * whenever the cache directory exceeds its disk budget. Survives restarts.
+ */
+public class LocalTableCache {
+    private static final Logger logger = LoggerFactory.getLogger(LocalTableCache.class);
+    private static final String PARTIAL_SUFFIX = ".tmp";
+
+    /**
+     * Loads an object into a table on a cache miss
+     */
+    @FunctionalInterface
+    public interface TableLoader {
+        void load(String tableName, String objectName) throws Exception;
+    }
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+    private final Path cacheDir;
+    private final long diskBudgetBytes;
+
+    public LocalTableCache(MinioService minioService, DuckDBService duckDBService,
+                           Path cacheDir, long diskBudgetBytes) throws IOException {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+        this.cacheDir = Files.createDirectories(cacheDir);
+        this.diskBudgetBytes = diskBudgetBytes;
+        removePartialFiles();
+    }
+
+    /**
+     * Load the object into tableName from the cache when its ETag is unchanged,
+     * otherwise through the loader, caching the resulting table
+     *
+     * @return true on a cache hit
+     */
+    public boolean load(String tableName, String objectName, TableLoader loader) throws Exception {
+        ObjectInfo info = minioService.statObject(objectName);
+        String objectKey = objectKey(objectName);
+        Path cached = cacheDir.resolve(objectKey + "_" + sanitize(info.etag()) + ".parquet");
+
+        if (Files.exists(cached)) {
+            Files.setLastModifiedTime(cached, FileTime.fromMillis(System.currentTimeMillis()));
+            duckDBService.loadParquetFromFile(tableName, cached.toString());
+            logger.info("Table cache hit for {} ({})", objectName, info.etag());
+            return true;
+        }
+
+        loader.load(tableName, objectName);
+
+        // Older versions of this object can never hit again
+        removeVersions(objectKey);
+        Path partial = cacheDir.resolve(cached.getFileName() + PARTIAL_SUFFIX);
+        try {
+            duckDBService.exportQueryToParquet("SELECT * FROM " + tableName, partial.toString());
+            Files.move(partial, cached);
+        } catch (Exception e) {
+            // Partial files are not counted against the budget, so they must not outlive a failed write
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+        logger.info("Table cache miss for {} ({}), cached {} bytes", objectName, info.etag(), Files.size(cached));
+
+        evictToBudget();
+        return false;
+    }
+
+    /**
+     * Total bytes currently held in the cache directory
+     */
+    public long sizeOnDisk() throws IOException {
+        long total = 0;
+        for (Path file : cachedFiles()) {
+            total += Files.size(file);
+        }
+        return total;
+    }
+
+    private void evictToBudget() throws IOException {
+        List<Path> files = cachedFiles();
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+        }
+
+        files.sort(Comparator.comparing(LocalTableCache::lastModified));
+        for (Path file : files) {
+            if (total <= diskBudgetBytes) {
+                break;
+            }
+            total -= Files.size(file);
+            Files.deleteIfExists(file);
+            logger.info("Evicted cached table {}", file.getFileName());
+        }
+    }
+
+    private void removeVersions(String objectKey) throws IOException {
+        for (Path file : cachedFiles()) {
+            if (file.getFileName().toString().startsWith(objectKey + "_")) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    // Left behind by a process that died while writing a cache file
+    private void removePartialFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().endsWith(PARTIAL_SUFFIX)).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private List<Path> cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".parquet"))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private String objectKey(String objectName) throws NoSuchAlgorithmException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hash = digest.digest((minioService.getBucketName() + "/" + objectName).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, 16);
+    }
+
+    private static String sanitize(String etag) {
+        return etag.replaceAll("[^A-Za-z0-9-]", "");
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
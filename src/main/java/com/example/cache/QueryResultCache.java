@@ -0,0 +1,236 @@
+package com.example.cache;
+
+import com.example.catalog.CatalogEntry;
+import com.example.catalog.LakeCatalog;
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory LRU cache of query results in front of DuckDBService.executeQuery.
+ * Entries are keyed by normalized SQL plus the ETags of the lake objects the query reads:
+ * tables registered with registerSource() and s3:// URIs named in the SQL.
+ * Once registered with MinioService.addObjectChangeListener, writes and deletes through the
+ * service drop every entry reading the changed prefix.
+ * Queries that read no known lake source are not cached.
+ */
+public class QueryResultCache implements MinioService.ObjectChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(QueryResultCache.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final Pattern S3_URI = Pattern.compile("s3://[^/']+/([^']*)");
+
+    /**
+     * Cache counters; invalidations counts entries dropped because a source object changed
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d invalidations, %d cached",
+                hits, misses, hitRate() * 100, evictions, invalidations, size);
+        }
+    }
+
+    private record Key(String sql, Map<String, String> versions) {
+    }
+
+    private record Entry(List<String[]> rows, Set<String> prefixes) {
+    }
+
+    private final DuckDBService duckDBService;
+    private final LakeCatalog catalog;
+    private final int maxEntries;
+    private final Map<String, String> tableSources = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public QueryResultCache(DuckDBService duckDBService, LakeCatalog catalog) {
+        this(duckDBService, catalog, DEFAULT_MAX_ENTRIES);
+    }
+
+    public QueryResultCache(DuckDBService duckDBService, LakeCatalog catalog, int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Result cache size must be positive: " + maxEntries);
+        }
+        this.duckDBService = duckDBService;
+        this.catalog = catalog;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Record that a DuckDB table holds data loaded from objects under a prefix (e.g. "sales/").
+     * Cached results that read the table are dropped, since it may have been reloaded.
+     */
+    public void registerSource(String tableName, String objectPrefix) {
+        tableSources.put(tableName.toLowerCase(), objectPrefix);
+        invalidatePrefix(objectPrefix);
+    }
+
+    /**
+     * Run the query through the cache. Rows are shared between callers and must not be modified.
+     */
+    public List<String[]> executeQuery(String query) throws Exception {
+        String sql = normalize(query);
+        Set<String> prefixes = sourcePrefixes(sql);
+        if (prefixes.isEmpty()) {
+            return duckDBService.executeQuery(query);
+        }
+
+        Key key = new Key(sql, versions(prefixes));
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.rows();
+            }
+            misses++;
+        }
+
+        List<String[]> rows = Collections.unmodifiableList(duckDBService.executeQuery(query));
+        synchronized (this) {
+            entries.put(key, new Entry(rows, prefixes));
+            if (entries.size() > maxEntries) {
+                Iterator<Entry> eldest = entries.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void objectChanged(String objectName) {
+        catalog.invalidate(objectName);
+        int dropped = invalidateMatching(objectName);
+        if (dropped > 0) {
+            logger.info("{} changed, dropped {} cached query results", objectName, dropped);
+        }
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, entries.size());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // Drop entries reading a prefix that covers the changed object
+    private synchronized int invalidateMatching(String objectName) {
+        int dropped = 0;
+        for (Iterator<Entry> it = entries.values().iterator(); it.hasNext(); ) {
+            for (String prefix : it.next().prefixes()) {
+                if (objectName.startsWith(prefix)) {
+                    it.remove();
+                    dropped++;
+                    break;
+                }
+            }
+        }
+        invalidations += dropped;
+        return dropped;
+    }
+
+    private synchronized void invalidatePrefix(String objectPrefix) {
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.prefixes().contains(objectPrefix));
+        invalidations += before - entries.size();
+    }
+
+    // ETag of every object under the prefixes, from the catalog (one listing per uncovered prefix)
+    private Map<String, String> versions(Set<String> prefixes) throws Exception {
+        Map<String, String> versions = new TreeMap<>();
+        for (String prefix : prefixes) {
+            for (String objectName : catalog.list(prefix, "")) {
+                catalog.get(objectName).map(CatalogEntry::etag).ifPresent(etag -> versions.put(objectName, etag));
+            }
+        }
+        return versions;
+    }
+
+    // Lake prefixes behind the registered tables and s3:// URIs the normalized SQL mentions
+    private Set<String> sourcePrefixes(String sql) {
+        Set<String> prefixes = new TreeSet<>();
+        for (Map.Entry<String, String> source : tableSources.entrySet()) {
+            if (Pattern.compile("(?<![\\w$])" + Pattern.quote(source.getKey()) + "(?![\\w$])").matcher(sql).find()) {
+                prefixes.add(source.getValue());
+            }
+        }
+
+        Matcher uri = S3_URI.matcher(sql);
+        while (uri.find()) {
+            // Globs read everything under the path before the first wildcard
+            String path = uri.group(1);
+            int wildcard = indexOfAny(path, "*?[{");
+            prefixes.add(wildcard < 0 ? path : path.substring(0, wildcard));
+        }
+        return prefixes;
+    }
+
+    /**
+     * Collapse whitespace and lowercase everything outside string literals,
+     * so formatting differences map to the same entry
+     */
+    static String normalize(String query) {
+        StringBuilder sql = new StringBuilder(query.length());
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (inLiteral) {
+                sql.append(c);
+                if (c == '\'') {
+                    inLiteral = false;
+                }
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = sql.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sql.append(' ');
+                    pendingSpace = false;
+                }
+                sql.append(Character.toLowerCase(c));
+                inLiteral = c == '\'';
+            }
+        }
+
+        int end = sql.length();
+        while (end > 0 && sql.charAt(end - 1) == ';') {
+            end--;
+        }
+        return sql.substring(0, end).trim();
+    }
+
+    private static int indexOfAny(String value, String chars) {
+        for (int i = 0; i < value.length(); i++) {
+            if (chars.indexOf(value.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.catalog;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cached metadata for one lake object.
+ * Schema and row count are filled in lazily and are null until the object is profiled.
+ */
+public record CatalogEntry(String objectName, long size, String etag, ZonedDateTime lastModified,
+                           Map<String, String> schema, Long rowCount) {
+
+    public boolean isProfiled() {
+        return schema != null;
+    }
+
+    CatalogEntry withProfile(Map<String, String> schema, long rowCount) {
+        return new CatalogEntry(objectName, size, etag, lastModified, Collections.unmodifiableMap(new LinkedHashMap<>(schema)), rowCount);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.catalog;
+
+import com.example.service.CsvCompression;
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import com.example.service.ObjectInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * In-memory catalog of lake objects (key, size, ETag, schema, row count).
+ * A prefix is listed once by refresh(); list and exists lookups under a refreshed
+ * prefix are then answered from memory without network calls.
+ */
+public class LakeCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(LakeCatalog.class);
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+    private final ConcurrentSkipListMap<String, CatalogEntry> entries = new ConcurrentSkipListMap<>();
+    private final Set<String> refreshedPrefixes = new CopyOnWriteArraySet<>();
+
+    public LakeCatalog(MinioService minioService, DuckDBService duckDBService) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+    }
+
+    /**
+     * Re-list a prefix with one ListObjects call. Entries whose ETag is unchanged keep
+     * their cached schema and row count; changed objects are re-profiled on next use.
+     *
+     * @return number of added, changed or removed entries
+     */
+    public int refresh(String prefix) throws Exception {
+        List<ObjectInfo> listing = minioService.listObjectInfo(prefix);
+        Set<String> seen = new HashSet<>();
+        int changes = 0;
+
+        for (ObjectInfo info : listing) {
+            seen.add(info.objectName());
+            CatalogEntry existing = entries.get(info.objectName());
+            if (existing == null || !existing.etag().equals(info.etag())) {
+                entries.put(info.objectName(), new CatalogEntry(
+                    info.objectName(), info.size(), info.etag(), info.lastModified(), null, null
+                ));
+                changes++;
+            }
+        }
+
+        for (String objectName : new ArrayList<>(underPrefix(prefix).keySet())) {
+            if (!seen.contains(objectName)) {
+                entries.remove(objectName);
+                changes++;
+            }
+        }
+
+        refreshedPrefixes.add(prefix);
+        logger.info("Catalog refreshed prefix '{}': {} objects, {} changes", prefix, listing.size(), changes);
+        return changes;
+    }
+
+    /**
+     * Cached entry for an object. Objects outside refreshed prefixes cost one stat call.
+     */
+    public Optional<CatalogEntry> get(String objectName) {
+        CatalogEntry entry = entries.get(objectName);
+        if (entry != null || isCovered(objectName)) {
+            return Optional.ofNullable(entry);
+        }
+
+        try {
+            ObjectInfo info = minioService.statObject(objectName);
+            entry = new CatalogEntry(info.objectName(), info.size(), info.etag(), info.lastModified(), null, null);
+            entries.put(objectName, entry);
+            return Optional.of(entry);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public boolean exists(String objectName) {
+        return get(objectName).isPresent();
+    }
+
+    /**
+     * List object names under a prefix ending with suffix, refreshing the prefix on first use;
+     * a ".csv" suffix also matches compressed CSV objects
+     */
+    public List<String> list(String prefix, String suffix) throws Exception {
+        if (!isCovered(prefix)) {
+            refresh(prefix);
+        }
+        List<String> names = new ArrayList<>();
+        for (String objectName : underPrefix(prefix).keySet()) {
+            if (CsvCompression.matches(objectName, suffix)) {
+                names.add(objectName);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Column names and types of an object, profiled on first request
+     */
+    public Map<String, String> getSchema(String objectName) throws Exception {
+        return profile(objectName).schema();
+    }
+
+    public long getRowCount(String objectName) throws Exception {
+        return profile(objectName).rowCount();
+    }
+
+    /**
+     * Record that an object changed, so the next lookup re-stats and re-profiles it
+     */
+    public void invalidate(String objectName) {
+        entries.remove(objectName);
+        for (String prefix : refreshedPrefixes) {
+            if (objectName.startsWith(prefix)) {
+                refreshedPrefixes.remove(prefix);
+            }
+        }
+    }
+
+    private CatalogEntry profile(String objectName) throws Exception {
+        CatalogEntry entry = get(objectName)
+            .orElseThrow(() -> new IllegalArgumentException("Object not found: " + objectName));
+        if (entry.isProfiled()) {
+            return entry;
+        }
+
+        Map<String, String> schema;
+        long rowCount;
+        if (duckDBService.isObjectStoreConfigured()) {
+            String uri = duckDBService.objectUri(objectName);
+            schema = duckDBService.describeFile(uri);
+            rowCount = duckDBService.countRows(uri);
+        } else {
+            File tempFile = File.createTempFile("catalog_", CsvCompression.fileExtension(objectName));
+            try {
+                minioService.downloadParallel(objectName, tempFile.toPath());
+                schema = duckDBService.describeFile(tempFile.getAbsolutePath());
+                rowCount = duckDBService.countRows(tempFile.getAbsolutePath());
+            } finally {
+                tempFile.delete();
+            }
+        }
+
+        CatalogEntry profiled = entry.withProfile(schema, rowCount);
+        entries.replace(objectName, entry, profiled);
+        return profiled;
+    }
+
+    private Map<String, CatalogEntry> underPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return entries;
+        }
+        return entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private boolean isCovered(String objectName) {
+        for (String prefix : refreshedPrefixes) {
+            if (objectName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.config;
+
+/**
+ * Configuration class for the DuckDB database: storage mode and resource limits.
+ * Null or non-positive values leave DuckDB's own default in place.
+ */
+public class DuckDBConfig {
+    public static final String IN_MEMORY = ":memory:";
+
+    private final String databasePath;
+    private final String memoryLimit;
+    private final int threads;
+    private final String tempDirectory;
+    private final boolean preserveInsertionOrder;
+    private final int maxConcurrentQueries;
+
+    public DuckDBConfig(String databasePath, String memoryLimit, int threads, String tempDirectory,
+                        boolean preserveInsertionOrder, int maxConcurrentQueries) {
+        this.databasePath = databasePath == null || databasePath.isBlank() ? IN_MEMORY : databasePath;
+        this.memoryLimit = memoryLimit;
+        this.threads = threads;
+        this.tempDirectory = tempDirectory;
+        this.preserveInsertionOrder = preserveInsertionOrder;
+        this.maxConcurrentQueries = maxConcurrentQueries > 0
+            ? maxConcurrentQueries : Runtime.getRuntime().availableProcessors();
+    }
+
+    // In-memory database with DuckDB's default limits
+    public static DuckDBConfig getDefaultConfig() {
+        return new DuckDBConfig(IN_MEMORY, null, 0, null, true, 0);
+    }
+
+    // Database file that survives restarts, spilling to a directory next to it
+    public static DuckDBConfig getPersistentConfig(String databasePath, String memoryLimit) {
+        return new DuckDBConfig(databasePath, memoryLimit, 0, databasePath + ".tmp", true, 0);
+    }
+
+    /**
+     * Read settings from system properties (duckdb.path, duckdb.memory_limit, duckdb.threads,
+     * duckdb.temp_directory, duckdb.preserve_insertion_order, duckdb.max_concurrent_queries),
+     * falling back to the matching environment variables (DUCKDB_PATH, DUCKDB_MEMORY_LIMIT, ...)
+     */
+    public static DuckDBConfig fromEnvironment() {
+        return new DuckDBConfig(
+            setting("duckdb.path"),
+            setting("duckdb.memory_limit"),
+            parseInt(setting("duckdb.threads")),
+            setting("duckdb.temp_directory"),
+            !"false".equalsIgnoreCase(setting("duckdb.preserve_insertion_order")),
+            parseInt(setting("duckdb.max_concurrent_queries"))
+        );
+    }
+
+    private static String setting(String property) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            value = System.getenv(property.toUpperCase().replace('.', '_'));
+        }
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static int parseInt(String value) {
+        return value == null ? 0 : Integer.parseInt(value);
+    }
+
+    // File path of the database, or ":memory:"
+    public String getDatabasePath() {
+        return databasePath;
+    }
+
+    public boolean isInMemory() {
+        return IN_MEMORY.equals(databasePath);
+    }
+
+    // Buffer manager limit such as "4GB"; operators beyond it spill to the temp directory
+    public String getMemoryLimit() {
+        return memoryLimit;
+    }
+
+    // Worker threads per query
+    public int getThreads() {
+        return threads;
+    }
+
+    // Directory for spilled intermediates of larger-than-memory joins, sorts and aggregates
+    public String getTempDirectory() {
+        return tempDirectory;
+    }
+
+    // Turning this off lets large scans and exports run without keeping row order, using less memory
+    public boolean isPreserveInsertionOrder() {
+        return preserveInsertionOrder;
+    }
+
+    // Size of the pooled read connection pool
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public String getJdbcUrl() {
+        return isInMemory() ? "jdbc:duckdb:" : "jdbc:duckdb:" + databasePath;
+    }
+}
@@ -4,16 +4,31 @@ package com.example.config;
  * Configuration class for MinIO connection settings
  */
 public class MinioConfig {
+    public static final String DEFAULT_REGION = "us-east-1";
+    public static final long DEFAULT_PART_SIZE = 16L * 1024 * 1024;
+    public static final int DEFAULT_TRANSFER_PARALLELISM = 4;
+
     private final String endpoint;
     private final String accessKey;
     private final String secretKey;
     private final String bucketName;
+    private final String region;
+    private final long partSize;
+    private final int transferParallelism;
 
     public MinioConfig(String endpoint, String accessKey, String secretKey, String bucketName) {
+        this(endpoint, accessKey, secretKey, bucketName, DEFAULT_REGION, DEFAULT_PART_SIZE, DEFAULT_TRANSFER_PARALLELISM);
+    }
+
+    public MinioConfig(String endpoint, String accessKey, String secretKey, String bucketName,
+                       String region, long partSize, int transferParallelism) {
         this.endpoint = endpoint;
         this.accessKey = accessKey;
         this.secretKey = secretKey;
         this.bucketName = bucketName;
+        this.region = region;
+        this.partSize = partSize;
+        this.transferParallelism = transferParallelism;
     }
 
     // Default configuration for local development
@@ -51,5 +66,31 @@ public class MinioConfig {
     public String getBucketName() {
         return bucketName;
     }
+
+    // Fixed region, so clients skip the bucket-location lookup
+    public String getRegion() {
+        return region;
+    }
+
+    // Size of each multipart upload part or download range, in bytes
+    public long getPartSize() {
+        return partSize;
+    }
+
+    // Number of parts uploaded or downloaded concurrently
+    public int getTransferParallelism() {
+        return transferParallelism;
+    }
+
+    // Endpoint without scheme (host[:port]), as expected by DuckDB's s3_endpoint setting
+    public String getHostAndPort() {
+        String hostAndPort = endpoint.replaceFirst("^[a-zA-Z][a-zA-Z0-9+.-]*://", "");
+        int slash = hostAndPort.indexOf('/');
+        return slash >= 0 ? hostAndPort.substring(0, slash) : hostAndPort;
+    }
+
+    public boolean isSecure() {
+        return endpoint.regionMatches(true, 0, "https://", 0, "https://".length());
+    }
 }
 
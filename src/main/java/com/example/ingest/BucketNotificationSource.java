@@ -0,0 +1,82 @@
+package com.example.ingest;
+
+import com.example.service.MinioService;
+import io.minio.CloseableIterator;
+import io.minio.Result;
+import io.minio.messages.Event;
+import io.minio.messages.NotificationRecords;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Event source backed by MinIO's listenBucketNotification stream for a prefix.
+ * The stream is reopened after errors; events missed while disconnected are picked up
+ * by the next event under the same prefix, since loaders re-list the prefix on refresh.
+ */
+public class BucketNotificationSource implements ObjectEventSource {
+    private static final Logger logger = LoggerFactory.getLogger(BucketNotificationSource.class);
+
+    private static final long RECONNECT_DELAY_MILLIS = 2_000;
+
+    private final MinioService minioService;
+    private final String prefix;
+    private volatile boolean running;
+    private volatile CloseableIterator<Result<NotificationRecords>> stream;
+    private Thread thread;
+
+    public BucketNotificationSource(MinioService minioService, String prefix) {
+        this.minioService = minioService;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public synchronized void start(MinioService.ObjectChangeListener listener) {
+        running = true;
+        thread = Thread.ofPlatform().name("bucket-notifications").daemon().start(() -> listen(listener));
+    }
+
+    private void listen(MinioService.ObjectChangeListener listener) {
+        while (running) {
+            try (CloseableIterator<Result<NotificationRecords>> events = minioService.listenObjectEvents(prefix)) {
+                stream = events;
+                logger.info("Listening for bucket notifications under '{}'", prefix);
+                while (running && events.hasNext()) {
+                    for (Event event : events.next().get().events()) {
+                        // Keys in notification records are URL-encoded
+                        listener.objectChanged(URLDecoder.decode(event.objectName(), StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                logger.warn("Bucket notification stream failed, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        CloseableIterator<Result<NotificationRecords>> events = stream;
+        if (events != null) {
+            try {
+                events.close();
+            } catch (IOException e) {
+                logger.debug("Error closing notification stream", e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.ingest;
+
+import com.example.service.CsvCompression;
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import com.example.service.ObjectInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps a DuckDB table in sync with the objects under a lake prefix, ingesting only what changed.
+ * Ingested objects and their ETags are recorded in a manifest table next to the data, so a refresh
+ * costs one listing plus the new or changed objects instead of the whole history.
+ * With a key column, new and changed objects are upserted by key. Without one, new objects are
+ * appended and a changed or removed object rebuilds the table.
+ */
+public class IncrementalLoader {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalLoader.class);
+
+    public static final String MANIFEST_TABLE = "ingest_manifest";
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+    private final String tableName;
+    private final String prefix;
+    private final String suffix;
+    private final String keyColumn;
+
+    /**
+     * Append-only loader for objects under prefix ending with suffix (".csv" or ".parquet");
+     * ".csv" also covers compressed .csv.gz and .csv.zst objects
+     */
+    public IncrementalLoader(MinioService minioService, DuckDBService duckDBService,
+                             String tableName, String prefix, String suffix) {
+        this(minioService, duckDBService, tableName, prefix, suffix, null);
+    }
+
+    /**
+     * Loader that upserts rows by keyColumn (e.g. order_id) when objects change
+     */
+    public IncrementalLoader(MinioService minioService, DuckDBService duckDBService,
+                             String tableName, String prefix, String suffix, String keyColumn) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+        this.tableName = tableName;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.keyColumn = keyColumn;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Whether a change to the object can affect this loader's table
+     */
+    public boolean covers(String objectName) {
+        return objectName.startsWith(prefix) && CsvCompression.matches(objectName, suffix);
+    }
+
+    /**
+     * Ingest objects that are new or whose ETag changed since the last refresh
+     *
+     * @return number of objects ingested
+     */
+    public int refresh() throws Exception {
+        duckDBService.executeUpdate("CREATE TABLE IF NOT EXISTS " + MANIFEST_TABLE +
+            " (table_name VARCHAR, object_name VARCHAR, etag VARCHAR, size BIGINT, ingested_at TIMESTAMP)");
+
+        Map<String, String> ingested = new HashMap<>();
+        List<String[]> manifest = duckDBService.executePrepared(
+            "SELECT object_name, etag FROM " + MANIFEST_TABLE + " WHERE table_name = ?", tableName);
+        for (String[] row : manifest.subList(1, manifest.size())) {
+            ingested.put(row[0], row[1]);
+        }
+
+        List<ObjectInfo> current = new ArrayList<>();
+        List<ObjectInfo> added = new ArrayList<>();
+        List<ObjectInfo> changed = new ArrayList<>();
+        Set<String> removed = new HashSet<>(ingested.keySet());
+        for (ObjectInfo info : minioService.listObjectInfo(prefix)) {
+            if (!CsvCompression.matches(info.objectName(), suffix)) {
+                continue;
+            }
+            current.add(info);
+            removed.remove(info.objectName());
+            String etag = ingested.get(info.objectName());
+            if (etag == null) {
+                added.add(info);
+            } else if (!etag.equals(info.etag())) {
+                changed.add(info);
+            }
+        }
+
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+            logger.info("Table {} is up to date with {} ({} objects)", tableName, prefix, current.size());
+            return 0;
+        }
+
+        boolean rebuild = !duckDBService.tableExists(tableName)
+            || (keyColumn == null && (!changed.isEmpty() || !removed.isEmpty()));
+        List<ObjectInfo> toLoad = new ArrayList<>(rebuild ? current : added);
+        if (!rebuild) {
+            toLoad.addAll(changed);
+        }
+        // Oldest first, so the newest object wins when upserting duplicate keys
+        toLoad.sort(Comparator.comparing(ObjectInfo::lastModified).thenComparing(ObjectInfo::objectName));
+        if (!rebuild && !removed.isEmpty()) {
+            logger.warn("{} objects removed from {}; their rows stay in table {}", removed.size(), prefix, tableName);
+        }
+
+        Path workDir = duckDBService.isObjectStoreConfigured() ? null : Files.createTempDirectory("incremental_");
+        try {
+            List<String> sources = resolveSources(toLoad, workDir);
+            duckDBService.runInTransaction(() -> {
+                if (rebuild) {
+                    duckDBService.dropTable(tableName);
+                    duckDBService.executePreparedUpdate(
+                        "DELETE FROM " + MANIFEST_TABLE + " WHERE table_name = ?", tableName);
+                    if (sources.isEmpty()) {
+                        logger.debug("No objects left under {} for {}", prefix, tableName);
+                    } else if (keyColumn != null) {
+                        duckDBService.createTableFromFiles(tableName, sources, keyColumn);
+                    } else {
+                        duckDBService.createTableFromFiles(tableName, sources);
+                    }
+                } else if (sources.isEmpty()) {
+                    logger.debug("No objects to load into {}", tableName);
+                } else if (keyColumn != null) {
+                    duckDBService.upsertFromFiles(tableName, sources, keyColumn);
+                } else {
+                    duckDBService.insertFromFiles(tableName, sources);
+                }
+                updateManifest(toLoad, removed);
+            });
+        } finally {
+            if (workDir != null) {
+                IngestSupport.deleteRecursively(workDir);
+            }
+        }
+
+        logger.info("Refreshed table {} from {}: {} new, {} changed, {} removed objects{}",
+            tableName, prefix, added.size(), changed.size(), removed.size(), rebuild ? " (rebuilt)" : "");
+        return toLoad.size();
+    }
+
+    private void updateManifest(List<ObjectInfo> loaded, Set<String> removed) throws Exception {
+        String delete = "DELETE FROM " + MANIFEST_TABLE + " WHERE table_name = ? AND object_name = ?";
+        for (String objectName : removed) {
+            duckDBService.executePreparedUpdate(delete, tableName, objectName);
+        }
+        for (ObjectInfo info : loaded) {
+            duckDBService.executePreparedUpdate(delete, tableName, info.objectName());
+            duckDBService.executePreparedUpdate(
+                "INSERT INTO " + MANIFEST_TABLE + " VALUES (?, ?, ?, ?, current_timestamp)",
+                tableName, info.objectName(), info.etag(), info.size());
+        }
+    }
+
+    // In-place URIs when DuckDB reads S3 itself, otherwise downloads into workDir: objects above
+    // one part as parallel ranges, one at a time, while the small ones download concurrently
+    private List<String> resolveSources(List<ObjectInfo> objects, Path workDir) throws Exception {
+        List<String> sources = new ArrayList<>(objects.size());
+        if (workDir == null) {
+            for (ObjectInfo info : objects) {
+                sources.add(duckDBService.objectUri(info.objectName()));
+            }
+            return sources;
+        }
+
+        long partSize = minioService.getPartSize();
+        List<String> smallNames = new ArrayList<>();
+        for (ObjectInfo info : objects) {
+            if (info.size() <= partSize) {
+                smallNames.add(info.objectName());
+            }
+        }
+        CompletableFuture<List<Path>> downloads =
+            minioService.async().downloadAllAsync(smallNames, Files.createDirectory(workDir.resolve("small")));
+        List<Path> large = new ArrayList<>();
+        try {
+            for (ObjectInfo info : objects) {
+                if (info.size() > partSize) {
+                    Path file = workDir.resolve(large.size() + CsvCompression.fileExtension(info.objectName()));
+                    minioService.downloadParallel(info.objectName(), file);
+                    large.add(file);
+                }
+            }
+        } catch (Exception e) {
+            downloads.cancel(true);
+            throw e;
+        }
+        List<Path> small = IngestSupport.await(downloads);
+
+        // Sources keep the oldest-first order of objects, so the newest object still wins
+        int nextSmall = 0;
+        int nextLarge = 0;
+        for (ObjectInfo info : objects) {
+            Path file = info.size() > partSize ? large.get(nextLarge++) : small.get(nextSmall++);
+            sources.add(file.toString());
+        }
+        return sources;
+    }
+}
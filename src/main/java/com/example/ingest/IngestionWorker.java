@@ -0,0 +1,225 @@
+package com.example.ingest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running ingestion service that refreshes tables as objects arrive.
+ * Events from the source go into a bounded queue (a full queue blocks the source), are
+ * collected for one batch window and turned into one refresh per affected loader.
+ * Each loader's ETag manifest commits with its data, so duplicate events, retries and
+ * restarts never load an object twice. Loads run on a single worker thread because they
+ * write through DuckDBService's primary connection; query through pooled connections meanwhile.
+ */
+public class IngestionWorker implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(IngestionWorker.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final Duration DEFAULT_BATCH_WINDOW = Duration.ofSeconds(1);
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long RETRY_BASE_DELAY_MILLIS = 500;
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Worker counters
+     */
+    public record Stats(long events, long batches, long objectsIngested, long failedRefreshes) {
+    }
+
+    private final ObjectEventSource source;
+    private final BlockingQueue<String> events;
+    private final Duration batchWindow;
+    private final int maxAttempts;
+    private final List<IncrementalLoader> loaders = new CopyOnWriteArrayList<>();
+    private final Object idleLock = new Object();
+    private volatile boolean running;
+    private Thread worker;
+    private long pendingEvents;
+    private long eventCount;
+    private long batchCount;
+    private long objectsIngested;
+    private long failedRefreshes;
+
+    public IngestionWorker(ObjectEventSource source) {
+        this(source, DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_WINDOW, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    public IngestionWorker(ObjectEventSource source, int queueCapacity, Duration batchWindow, int maxAttempts) {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Max attempts must be positive: " + maxAttempts);
+        }
+        this.source = source;
+        this.events = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchWindow = batchWindow;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Refresh the loader's table whenever an object it covers changes
+     */
+    public void register(IncrementalLoader loader) {
+        loaders.add(loader);
+    }
+
+    /**
+     * Start the worker thread and subscribe to the event source
+     */
+    public synchronized void start() throws Exception {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("ingestion-worker").daemon().start(this::run);
+        source.start(this::enqueue);
+        logger.info("Ingestion worker started for {} tables", loaders.size());
+    }
+
+    // Called by the event source; blocks while the queue is full
+    private void enqueue(String objectName) {
+        synchronized (idleLock) {
+            pendingEvents++;
+            eventCount++;
+        }
+        try {
+            events.put(objectName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markProcessed(1);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            List<String> batch = new ArrayList<>();
+            try {
+                String first = events.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                Thread.sleep(batchWindow.toMillis());
+                events.drainTo(batch);
+                ingest(batch);
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                markProcessed(batch.size());
+            }
+        }
+    }
+
+    private void ingest(List<String> batch) throws InterruptedException {
+        Set<IncrementalLoader> affected = new LinkedHashSet<>();
+        for (String objectName : batch) {
+            for (IncrementalLoader loader : loaders) {
+                if (loader.covers(objectName)) {
+                    affected.add(loader);
+                }
+            }
+        }
+
+        for (IncrementalLoader loader : affected) {
+            int ingested = refreshWithRetry(loader);
+            synchronized (idleLock) {
+                objectsIngested += ingested;
+            }
+        }
+        synchronized (idleLock) {
+            batchCount++;
+        }
+        logger.info("Processed {} events, refreshed {} tables", batch.size(), affected.size());
+    }
+
+    // Retry with exponential backoff; the manifest makes a partially failed refresh safe to repeat
+    private int refreshWithRetry(IncrementalLoader loader) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return loader.refresh();
+            } catch (Exception e) {
+                if (!running) {
+                    // close() interrupted the refresh; the manifest was not committed, so the next start redoes it
+                    logger.info("Refresh of {} stopped by shutdown: {}", loader.getTableName(), e.getMessage());
+                    throw new InterruptedException("Ingestion worker closed");
+                }
+                if (attempt >= maxAttempts) {
+                    logger.error("Giving up refreshing {} after {} attempts; the next event retries it",
+                        loader.getTableName(), attempt, e);
+                    synchronized (idleLock) {
+                        failedRefreshes++;
+                    }
+                    return 0;
+                }
+                long delay = RETRY_BASE_DELAY_MILLIS << (attempt - 1);
+                logger.warn("Refreshing {} failed (attempt {}/{}), retrying in {} ms: {}",
+                    loader.getTableName(), attempt, maxAttempts, delay, e.getMessage());
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    private void markProcessed(int count) {
+        synchronized (idleLock) {
+            pendingEvents -= count;
+            if (pendingEvents == 0) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wait until every event received so far has been ingested
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (idleLock) {
+            while (pendingEvents > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idleLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    public Stats getStats() {
+        synchronized (idleLock) {
+            return new Stats(eventCount, batchCount, objectsIngested, failedRefreshes);
+        }
+    }
+
+    /**
+     * Unsubscribe from the source and stop the worker, interrupting a batch window, retry backoff
+     * or refresh in progress; an interrupted refresh is redone by the next refresh of its table
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        source.close();
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while waiting for the ingestion worker to stop");
+            return;
+        }
+        logger.info("Ingestion worker stopped: {}", getStats());
+    }
+}
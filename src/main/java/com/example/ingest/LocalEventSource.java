@@ -0,0 +1,38 @@
+package com.example.ingest;
+
+import com.example.service.MinioService;
+
+/**
+ * In-process event source: events are published by hand or, when registered as a
+ * MinioService change listener, by every write made through this application.
+ * Stands in for bucket notifications in tests and local runs.
+ */
+public class LocalEventSource implements ObjectEventSource, MinioService.ObjectChangeListener {
+    private volatile MinioService.ObjectChangeListener listener;
+
+    @Override
+    public void start(MinioService.ObjectChangeListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Publish a change event; blocks while the consumer applies back-pressure.
+     * Events published before start() or after close() are dropped.
+     */
+    public void publish(String objectName) {
+        MinioService.ObjectChangeListener current = listener;
+        if (current != null) {
+            current.objectChanged(objectName);
+        }
+    }
+
+    @Override
+    public void objectChanged(String objectName) {
+        publish(objectName);
+    }
+
+    @Override
+    public void close() {
+        listener = null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.ingest;
+
+import com.example.service.MinioService;
+
+/**
+ * Source of lake object change events (object names) for the ingestion worker.
+ * Events may be duplicated or arrive late; the listener may block to apply back-pressure.
+ */
+public interface ObjectEventSource extends AutoCloseable {
+
+    /**
+     * Start delivering events to the listener
+     */
+    void start(MinioService.ObjectChangeListener listener) throws Exception;
+
+    /**
+     * Stop delivering events
+     */
+    @Override
+    void close();
+}
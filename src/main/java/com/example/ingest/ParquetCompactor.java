@@ -0,0 +1,104 @@
+package com.example.ingest;
+
+import com.example.service.CsvCompression;
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ingestion stage that converts raw CSV objects into columnar Parquet copies.
+ * Each CSV object gets a sibling object with the .parquet extension
+ * (sales/sales_data.csv -> sales/sales_data.parquet).
+ * The copy records the ETag of the CSV it was converted from, so readers can tell when it is stale.
+ */
+public class ParquetCompactor {
+    private static final Logger logger = LoggerFactory.getLogger(ParquetCompactor.class);
+
+    // User metadata key on the Parquet copy holding the source CSV's ETag
+    public static final String SOURCE_ETAG = "source-etag";
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+
+    public ParquetCompactor(MinioService minioService, DuckDBService duckDBService) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+    }
+
+    /**
+     * Get the Parquet object name for a CSV object, compressed or not
+     */
+    public static String parquetObjectName(String csvObjectName) {
+        csvObjectName = CsvCompression.NONE.objectName(csvObjectName);
+        if (csvObjectName.endsWith(".csv")) {
+            return csvObjectName.substring(0, csvObjectName.length() - ".csv".length()) + ".parquet";
+        }
+        return csvObjectName + ".parquet";
+    }
+
+    /**
+     * Whether the Parquet copy of a CSV object exists and was converted from the CSV with the given ETag
+     */
+    public boolean isCopyCurrent(String csvObjectName, String csvEtag) {
+        if (csvEtag == null) {
+            return false;
+        }
+        try {
+            Map<String, String> metadata = minioService.getUserMetadata(parquetObjectName(csvObjectName));
+            return csvEtag.equals(metadata.get(SOURCE_ETAG));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Convert every CSV object under a prefix (e.g. "sales/") to Parquet
+     */
+    public List<String> compactPrefix(String prefix) throws Exception {
+        List<String> written = new ArrayList<>();
+        for (String csvObject : minioService.listCsvFiles(prefix)) {
+            written.add(compactObject(csvObject));
+        }
+        logger.info("Compacted {} CSV objects under {} to Parquet", written.size(), prefix);
+        return written;
+    }
+
+    /**
+     * Convert a single CSV object to Parquet and upload it next to the source
+     */
+    public String compactObject(String csvObjectName) throws Exception {
+        String parquetObject = parquetObjectName(csvObjectName);
+        // Taken before the read: if the CSV changes meanwhile, the copy looks stale rather than current
+        String sourceEtag = minioService.statObject(csvObjectName).etag();
+
+        File parquetFile = File.createTempFile("compact_", ".parquet");
+        File csvFile = null;
+        try {
+            String source;
+            if (duckDBService.isObjectStoreConfigured()) {
+                source = duckDBService.objectUri(csvObjectName);
+            } else {
+                csvFile = File.createTempFile("compact_", CsvCompression.fileExtension(csvObjectName));
+                minioService.downloadCsvFile(csvObjectName, csvFile.getAbsolutePath());
+                source = csvFile.getAbsolutePath();
+            }
+
+            duckDBService.convertCsvToParquet(source, parquetFile.getAbsolutePath());
+            minioService.uploadParquetFile(parquetObject, parquetFile, Map.of(SOURCE_ETAG, sourceEtag));
+        } finally {
+            parquetFile.delete();
+            if (csvFile != null) {
+                csvFile.delete();
+            }
+        }
+
+        logger.info("Compacted {} to {}", csvObjectName, parquetObject);
+        return parquetObject;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ingest;
+
+import com.example.service.DuckDBService;
+import com.example.service.ExportFormat;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hive-style partitioned Parquet dataset stored under a lake prefix,
+ * e.g. sales_partitioned/order_date=2024-01-15/data_0.parquet.
+ * Loads only fetch the objects whose partition values can match the WHERE clause.
+ */
+public class PartitionedDataset {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedDataset.class);
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+    private final String basePrefix;
+
+    public PartitionedDataset(MinioService minioService, DuckDBService duckDBService, String basePrefix) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+        this.basePrefix = basePrefix.endsWith("/") ? basePrefix : basePrefix + "/";
+    }
+
+    public String getBasePrefix() {
+        return basePrefix;
+    }
+
+    /**
+     * Write query results partitioned by the given columns under the prefix.
+     * Partition values become path segments, so they should be path-safe (dates, codes, ids).
+     */
+    public List<String> write(String query, String... partitionColumns) throws Exception {
+        List<String> written = new QueryExporter(minioService, duckDBService)
+            .exportPartitioned(query, basePrefix, ExportFormat.PARQUET, partitionColumns);
+        logger.info("Wrote {} partition files under {}", written.size(), basePrefix);
+        return written;
+    }
+
+    /**
+     * Load the partitions matching whereClause into a table and apply the clause to the rows.
+     *
+     * @return the object keys that were read
+     */
+    public List<String> load(String tableName, String whereClause) throws Exception {
+        List<String> objectKeys = minioService.listObjects(basePrefix, ".parquet");
+        if (objectKeys.isEmpty()) {
+            throw new IllegalStateException("No partitioned Parquet objects under " + basePrefix);
+        }
+
+        List<String> selected = duckDBService.prunePartitions(objectKeys, whereClause, partitionTypes(objectKeys.get(0)));
+        if (selected.isEmpty()) {
+            // Read one file so the (empty) table still gets the dataset schema
+            selected = List.of(objectKeys.get(0));
+        }
+
+        if (duckDBService.isObjectStoreConfigured()) {
+            List<String> uris = new ArrayList<>(selected.size());
+            for (String objectKey : selected) {
+                uris.add(duckDBService.objectUri(objectKey));
+            }
+            duckDBService.loadPartitionedParquet(tableName, uris, whereClause);
+            return selected;
+        }
+
+        // Keep the name=value directories locally so DuckDB can restore the partition columns
+        Path localDir = Files.createTempDirectory("partitions_");
+        try {
+            List<String> paths = new ArrayList<>(selected.size());
+            for (String objectKey : selected) {
+                Path target = localDir.resolve(objectKey);
+                Files.createDirectories(target.getParent());
+                minioService.downloadParallel(objectKey, target);
+                paths.add(target.toString());
+            }
+            duckDBService.loadPartitionedParquet(tableName, paths, whereClause);
+        } finally {
+            IngestSupport.deleteRecursively(localDir);
+        }
+        return selected;
+    }
+
+    // Partition column types as DuckDB reads them, from one file's footer; unknown without in-place reads,
+    // where the pruner keeps keys that match a quoted literal either as a string or as a number
+    private Map<String, String> partitionTypes(String objectKey) {
+        if (!duckDBService.isObjectStoreConfigured()) {
+            return Map.of();
+        }
+        try {
+            return duckDBService.describePartitionedParquet(duckDBService.objectUri(objectKey));
+        } catch (SQLException e) {
+            logger.warn("Could not read partition types from {}: {}", objectKey, e.getMessage());
+            return Map.of();
+        }
+    }
+}
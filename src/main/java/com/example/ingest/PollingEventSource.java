@@ -0,0 +1,75 @@
+package com.example.ingest;
+
+import com.example.catalog.CatalogEntry;
+import com.example.catalog.LakeCatalog;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fallback event source that re-lists prefixes through the catalog on a fixed interval
+ * and reports objects that appeared, changed ETag or disappeared since the last poll.
+ * Works against any S3 store, at the cost of one listing per prefix per interval.
+ */
+public class PollingEventSource implements ObjectEventSource {
+    private static final Logger logger = LoggerFactory.getLogger(PollingEventSource.class);
+
+    private final LakeCatalog catalog;
+    private final List<String> prefixes;
+    private final Duration interval;
+    private final Map<String, String> seen = new HashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public PollingEventSource(LakeCatalog catalog, List<String> prefixes, Duration interval) {
+        this.catalog = catalog;
+        this.prefixes = List.copyOf(prefixes);
+        this.interval = interval;
+    }
+
+    @Override
+    public synchronized void start(MinioService.ObjectChangeListener listener) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("catalog-poller").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> poll(listener), 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(MinioService.ObjectChangeListener listener) {
+        for (String prefix : prefixes) {
+            try {
+                catalog.refresh(prefix);
+                Set<String> listed = new HashSet<>();
+                for (String objectName : catalog.list(prefix, "")) {
+                    listed.add(objectName);
+                    String etag = catalog.get(objectName).map(CatalogEntry::etag).orElse(null);
+                    if (etag != null && !etag.equals(seen.put(objectName, etag))) {
+                        listener.objectChanged(objectName);
+                    }
+                }
+                for (String objectName : Set.copyOf(seen.keySet())) {
+                    if (objectName.startsWith(prefix) && !listed.contains(objectName)) {
+                        seen.remove(objectName);
+                        listener.objectChanged(objectName);
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Polling {} failed, retrying next interval: {}", prefix, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
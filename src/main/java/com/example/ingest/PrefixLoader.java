@@ -0,0 +1,83 @@
+package com.example.ingest;
+
+import com.example.service.DuckDBService;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads every object under a lake prefix into one table with a single DuckDB read,
+ * instead of one request and one CREATE TABLE per object. Columns are matched by name,
+ * so objects written with added or reordered columns load side by side.
+ * When DuckDB reads S3 itself the prefix is read through a glob; otherwise the objects are
+ * downloaded concurrently and read as one file list.
+ */
+public class PrefixLoader {
+    private static final Logger logger = LoggerFactory.getLogger(PrefixLoader.class);
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+
+    public PrefixLoader(MinioService minioService, DuckDBService duckDBService) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+    }
+
+    /**
+     * Replace tableName with the rows of all objects under prefix ending with suffix (".csv" or ".parquet");
+     * ".csv" also covers compressed .csv.gz and .csv.zst objects
+     *
+     * @return number of rows loaded
+     */
+    public long load(String tableName, String prefix, String suffix) throws Exception {
+        String basePrefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+
+        if (duckDBService.isObjectStoreConfigured() && !".csv".equals(suffix)) {
+            String glob = duckDBService.objectUri(basePrefix + "**/*" + suffix);
+            long rows = duckDBService.loadFromFiles(tableName, List.of(glob));
+            logger.info("Loaded {} into table {} in one read ({} rows)", glob, tableName, rows);
+            return rows;
+        }
+
+        List<String> objectNames = minioService.listObjects(basePrefix, suffix);
+        if (objectNames.isEmpty()) {
+            throw new IllegalStateException("No " + suffix + " objects under " + basePrefix);
+        }
+
+        if (duckDBService.isObjectStoreConfigured()) {
+            // CSV objects may carry different compression extensions, which one glob cannot match
+            List<String> uris = new ArrayList<>(objectNames.size());
+            for (String objectName : objectNames) {
+                uris.add(duckDBService.objectUri(objectName));
+            }
+            long rows = duckDBService.loadFromFiles(tableName, uris);
+            logger.info("Loaded {} objects under {} into table {} in one read ({} rows)",
+                objectNames.size(), basePrefix, tableName, rows);
+            return rows;
+        }
+
+        Path workDir = Files.createTempDirectory("prefix_");
+        try {
+            List<String> files = download(objectNames, workDir);
+            long rows = duckDBService.loadFromFiles(tableName, files);
+            logger.info("Loaded {} objects under {} into table {} in one read ({} rows)",
+                objectNames.size(), basePrefix, tableName, rows);
+            return rows;
+        } finally {
+            IngestSupport.deleteRecursively(workDir);
+        }
+    }
+
+    private List<String> download(List<String> objectNames, Path workDir) throws Exception {
+        List<String> files = new ArrayList<>(objectNames.size());
+        for (Path file : IngestSupport.await(minioService.async().downloadAllAsync(objectNames, workDir))) {
+            files.add(file.toString());
+        }
+        return files;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.ingest;
+
+import com.example.service.DuckDBService;
+import com.example.service.ExportFormat;
+import com.example.service.MinioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Exports query results straight into MinIO objects.
+ * When DuckDB can write to S3 itself, COPY targets the object directly. Otherwise the
+ * result is encoded on a virtual thread and piped into a multipart upload, so neither
+ * the whole result nor (where named pipes exist) a local file is ever materialized.
+ */
+public class QueryExporter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryExporter.class);
+
+    public static final String ARROW_STREAM_CONTENT_TYPE = "application/vnd.apache.arrow.stream";
+    private static final int PIPE_BUFFER_SIZE = 1 << 20;
+    private static final long MKFIFO_TIMEOUT_SECONDS = 10;
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+
+    public QueryExporter(MinioService minioService, DuckDBService duckDBService) {
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+    }
+
+    /**
+     * COPY query results into a single CSV or Parquet object
+     *
+     * @return number of rows exported
+     */
+    public long export(String query, String objectName, ExportFormat format) throws Exception {
+        if (duckDBService.isObjectStoreConfigured()) {
+            long rows = duckDBService.exportQuery(query, duckDBService.objectUri(objectName), format);
+            minioService.notifyObjectChanged(objectName);
+            return rows;
+        }
+
+        Path workDir = Files.createTempDirectory("export_");
+        try {
+            Path fifo = createFifo(workDir.resolve("copy" + format.getExtension()));
+            if (fifo != null) {
+                return pipeCopy(query, objectName, format, fifo);
+            }
+
+            // No named pipes (e.g. Windows): DuckDB writes a local file that is uploaded in parts
+            Path file = workDir.resolve("copy" + format.getExtension());
+            long rows = duckDBService.exportQuery(query, file.toString(), format);
+            minioService.uploadFile(objectName, file.toFile(), format.getContentType());
+            return rows;
+        } finally {
+            IngestSupport.deleteRecursively(workDir);
+        }
+    }
+
+    /**
+     * COPY query results as Hive-style partitions under a prefix
+     * (prefix/col=value/data_0.parquet); partition values become path segments.
+     *
+     * @return the object keys under the prefix after the export
+     */
+    public List<String> exportPartitioned(String query, String prefix, ExportFormat format,
+                                          String... partitionColumns) throws Exception {
+        if (partitionColumns.length == 0) {
+            throw new IllegalArgumentException("At least one partition column is required");
+        }
+        String basePrefix = prefix.endsWith("/") ? prefix : prefix + "/";
+
+        if (duckDBService.isObjectStoreConfigured()) {
+            String target = duckDBService.objectUri(basePrefix.substring(0, basePrefix.length() - 1));
+            duckDBService.exportQuery(query, target, format, partitionColumns);
+            List<String> keys = minioService.listObjects(basePrefix, format.getExtension());
+            keys.forEach(minioService::notifyObjectChanged);
+            return keys;
+        }
+
+        Path outputDir = Files.createTempDirectory("partitioned_");
+        List<String> written = new ArrayList<>();
+        try {
+            duckDBService.exportQuery(query, outputDir.toString(), format, partitionColumns);
+
+            for (Path file : listFiles(outputDir)) {
+                String objectName = basePrefix + outputDir.relativize(file).toString().replace('\\', '/');
+                minioService.uploadFile(objectName, file.toFile(), format.getContentType());
+                written.add(objectName);
+            }
+        } finally {
+            IngestSupport.deleteRecursively(outputDir);
+        }
+
+        logger.info("Exported {} partition files under {}", written.size(), basePrefix);
+        return written;
+    }
+
+    /**
+     * Upload query results as an Arrow IPC stream object
+     *
+     * @return number of rows exported
+     */
+    public long exportArrow(String query, String objectName) throws Exception {
+        PipedInputStream pipe = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(pipe);
+        return streamUpload(objectName, ARROW_STREAM_CONTENT_TYPE, () -> {
+            try (out) {
+                return duckDBService.exportQueryToArrowStream(query, out);
+            }
+        }, () -> pipe);
+    }
+
+    // DuckDB writes the COPY output into a named pipe that the upload reads from
+    private long pipeCopy(String query, String objectName, ExportFormat format, Path fifo) throws Exception {
+        AtomicBoolean readerOpened = new AtomicBoolean();
+        return streamUpload(objectName, format.getContentType(), () -> {
+            try {
+                return duckDBService.exportQuery(query, fifo.toString(), format);
+            } catch (Exception e) {
+                if (!readerOpened.get()) {
+                    // COPY failed before opening the pipe; open it once so the reader's open returns
+                    Files.newOutputStream(fifo).close();
+                }
+                throw e;
+            }
+        }, () -> {
+            InputStream in = Files.newInputStream(fifo);
+            readerOpened.set(true);
+            return in;
+        });
+    }
+
+    // Run the export on a virtual thread and upload everything it writes to the source stream
+    private long streamUpload(String objectName, String contentType,
+                              Callable<Long> producer, Callable<InputStream> source) throws Exception {
+        FutureTask<Long> export = new FutureTask<>(producer);
+        Thread.ofVirtual().name("query-export").start(export);
+
+        long bytes;
+        try (InputStream in = new ExportInputStream(source.call(), export)) {
+            bytes = minioService.uploadStream(objectName, in, contentType);
+        } catch (Exception e) {
+            export.cancel(true);
+            throw e;
+        }
+
+        long rows = export.get();
+        logger.info("Exported {} rows to {} ({} bytes)", rows, objectName, bytes);
+        return rows;
+    }
+
+    // Named pipe at path, or null when mkfifo is not available on this platform
+    private static Path createFifo(Path path) throws InterruptedException {
+        try {
+            Process process = new ProcessBuilder("mkfifo", path.toString()).redirectErrorStream(true).start();
+            if (process.waitFor(MKFIFO_TIMEOUT_SECONDS, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                return path;
+            }
+            process.destroy();
+        } catch (IOException e) {
+            logger.debug("mkfifo unavailable, exporting through a temp file", e);
+        }
+        return null;
+    }
+
+    private static List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).sorted().toList();
+        }
+    }
+
+    /**
+     * Pipe reader that turns end of stream into an error when the export behind it failed,
+     * so a partial result aborts the upload instead of completing it
+     */
+    private static class ExportInputStream extends FilterInputStream {
+        private final Future<?> export;
+
+        ExportInputStream(InputStream pipe, Future<?> export) {
+            super(pipe);
+            this.export = export;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value == -1) {
+                awaitExport();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read == -1) {
+                awaitExport();
+            }
+            return read;
+        }
+
+        private void awaitExport() throws IOException {
+            try {
+                export.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for query export");
+            } catch (ExecutionException e) {
+                throw new IOException("Query export failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.ingest;
+
+import com.example.service.AsyncMinioService;
+import com.example.service.CsvCompression;
+import com.example.service.DuckDBService;
+import com.example.service.ExportFormat;
+import com.example.service.MinioService;
+import com.example.service.ObjectInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Merges the small objects under a lake prefix into right-sized files of the same format.
+ * Objects below smallFileBytes are packed, oldest first, into groups of up to targetFileBytes;
+ * each group of two or more is rewritten as one object (prefix/compacted-{millis}-{n}.csv) and
+ * its sources are deleted. A merged object is uploaded before its sources are removed, so a
+ * failure in between leaves duplicate rows rather than missing ones.
+ * Compressed CSV objects are merged with plain ones, and merged CSV objects are stored
+ * with the service's current CSV compression.
+ * A merged object is newer than everything it replaces, so a prefix feeding a keyed
+ * IncrementalLoader must be compacted with its key column: groups then keep the row of the
+ * newest source per key, and only small objects newer than every large one are merged.
+ */
+public class SmallFileCompactor {
+    private static final Logger logger = LoggerFactory.getLogger(SmallFileCompactor.class);
+
+    public static final long DEFAULT_SMALL_FILE_BYTES = 8L * 1024 * 1024;
+    public static final long DEFAULT_TARGET_FILE_BYTES = 128L * 1024 * 1024;
+
+    private final MinioService minioService;
+    private final DuckDBService duckDBService;
+    private final long smallFileBytes;
+    private final long targetFileBytes;
+
+    public SmallFileCompactor(MinioService minioService, DuckDBService duckDBService) {
+        this(minioService, duckDBService, DEFAULT_SMALL_FILE_BYTES, DEFAULT_TARGET_FILE_BYTES);
+    }
+
+    public SmallFileCompactor(MinioService minioService, DuckDBService duckDBService,
+                              long smallFileBytes, long targetFileBytes) {
+        if (smallFileBytes <= 0 || targetFileBytes < smallFileBytes) {
+            throw new IllegalArgumentException(
+                "Invalid file sizes: small " + smallFileBytes + ", target " + targetFileBytes);
+        }
+        this.minioService = minioService;
+        this.duckDBService = duckDBService;
+        this.smallFileBytes = smallFileBytes;
+        this.targetFileBytes = targetFileBytes;
+    }
+
+    /**
+     * Merge small objects of the given format under a prefix (e.g. "sales/") keeping every row;
+     * only for prefixes loaded append-only
+     *
+     * @return the merged object names written
+     */
+    public List<String> compactPrefix(String prefix, ExportFormat format) throws Exception {
+        return compactPrefix(prefix, format, null);
+    }
+
+    /**
+     * Merge small objects of the given format under a prefix feeding a loader keyed by keyColumn
+     * (e.g. order_id), so the newest object still wins for each key after compaction
+     *
+     * @return the merged object names written
+     */
+    public List<String> compactPrefix(String prefix, ExportFormat format, String keyColumn) throws Exception {
+        List<List<ObjectInfo>> groups = plan(minioService.listObjectInfo(prefix), format.getExtension(), keyColumn != null);
+        String basePrefix = prefix.isEmpty() || prefix.endsWith("/") ? prefix : prefix + "/";
+        long batch = System.currentTimeMillis();
+
+        List<String> written = new ArrayList<>(groups.size());
+        int merged = 0;
+        for (List<ObjectInfo> group : groups) {
+            String objectName = basePrefix + "compacted-" + batch + "-" + written.size() + format.getExtension();
+            written.add(mergeGroup(group, objectName, format, keyColumn));
+            merged += group.size();
+        }
+        logger.info("Compacted {} small objects under {} into {} objects", merged, prefix, written.size());
+        return written;
+    }
+
+    // Pack small objects, oldest first, into groups no larger than the target size. When keyed,
+    // objects older than a large one are left alone: merging them would let their rows
+    // overtake the large object's rows for the same key
+    private List<List<ObjectInfo>> plan(List<ObjectInfo> objects, String extension, boolean keyed) {
+        Comparator<ObjectInfo> byAge = Comparator.comparing(ObjectInfo::lastModified).thenComparing(ObjectInfo::objectName);
+        List<ObjectInfo> matching = new ArrayList<>();
+        for (ObjectInfo info : objects) {
+            if (CsvCompression.matches(info.objectName(), extension)) {
+                matching.add(info);
+            }
+        }
+        matching.sort(byAge);
+
+        List<ObjectInfo> small = new ArrayList<>();
+        for (ObjectInfo info : matching) {
+            if (info.size() < smallFileBytes) {
+                small.add(info);
+            } else if (keyed) {
+                small.clear();
+            }
+        }
+
+        List<List<ObjectInfo>> groups = new ArrayList<>();
+        List<ObjectInfo> current = new ArrayList<>();
+        long currentBytes = 0;
+        for (ObjectInfo info : small) {
+            if (!current.isEmpty() && currentBytes + info.size() > targetFileBytes) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(info);
+            currentBytes += info.size();
+        }
+        groups.add(current);
+        // A lone object gains nothing from being rewritten
+        groups.removeIf(group -> group.size() < 2);
+        return groups;
+    }
+
+    // Rewrite one group as a single object and delete its sources; returns the stored name
+    private String mergeGroup(List<ObjectInfo> group, String objectName, ExportFormat format,
+                              String keyColumn) throws Exception {
+        List<String> objectNames = group.stream().map(ObjectInfo::objectName).toList();
+        AsyncMinioService async = minioService.async();
+
+        Path workDir = duckDBService.isObjectStoreConfigured() ? null : Files.createTempDirectory("merge_");
+        try {
+            List<String> sources = new ArrayList<>(objectNames.size());
+            if (workDir == null) {
+                for (String name : objectNames) {
+                    sources.add(duckDBService.objectUri(name));
+                }
+            } else {
+                for (Path file : IngestSupport.await(async.downloadAllAsync(objectNames, workDir))) {
+                    sources.add(file.toString());
+                }
+            }
+
+            // Sources are oldest first, so the latest-by-key read keeps the newest row per key
+            String query = keyColumn == null
+                ? duckDBService.selectFromFiles(sources)
+                : duckDBService.selectLatestFromFiles(sources, keyColumn);
+            long rows;
+            if (format == ExportFormat.CSV && minioService.getCsvCompression() != CsvCompression.NONE) {
+                // Written locally first so the upload can compress it and set Content-Encoding
+                Path merged = Files.createTempFile("merged_", format.getExtension());
+                try {
+                    rows = duckDBService.exportQuery(query, merged.toString(), format);
+                    objectName = minioService.uploadCsvFile(objectName, merged.toFile());
+                } finally {
+                    Files.deleteIfExists(merged);
+                }
+            } else {
+                rows = new QueryExporter(minioService, duckDBService).export(query, objectName, format);
+            }
+            logger.info("Merged {} objects into {} ({} rows)", group.size(), objectName, rows);
+        } finally {
+            if (workDir != null) {
+                IngestSupport.deleteRecursively(workDir);
+            }
+        }
+
+        List<CompletableFuture<Void>> deletes = new ArrayList<>(objectNames.size());
+        for (String name : objectNames) {
+            deletes.add(async.deleteAsync(name));
+        }
+        IngestSupport.await(AsyncMinioService.allOf(deletes));
+        return objectName;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Registry of operation metrics for MinIO transfers and DuckDB loads and queries,
+ * plus the EXPLAIN ANALYZE profiles of recent slow queries.
+ * The global registry publishes every operation as a JMX MXBean under com.example.metrics
+ * and can be scraped in Prometheus text format (see MetricsEndpoint).
+ */
+public class LakeMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(LakeMetrics.class);
+
+    public static final String JMX_DOMAIN = "com.example.metrics";
+    public static final int SLOW_QUERY_HISTORY = 20;
+
+    private static final LakeMetrics GLOBAL = new LakeMetrics(true);
+
+    /**
+     * Profile of a query that exceeded the slow query threshold
+     */
+    public record SlowQuery(Instant time, String sql, double elapsedMillis, String profile) {
+    }
+
+    private final boolean jmx;
+    private final ConcurrentSkipListMap<String, OperationMetrics> operations = new ConcurrentSkipListMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>();
+
+    public LakeMetrics() {
+        this(false);
+    }
+
+    private LakeMetrics(boolean jmx) {
+        this.jmx = jmx;
+    }
+
+    /**
+     * Registry shared by the services of this process
+     */
+    public static LakeMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Start timing one call of an operation
+     */
+    public Timing start(String operation) {
+        return new Timing(operation(operation));
+    }
+
+    public OperationMetrics operation(String name) {
+        OperationMetrics metrics = operations.get(name);
+        if (metrics != null) {
+            return metrics;
+        }
+        OperationMetrics created = new OperationMetrics(name);
+        metrics = operations.putIfAbsent(name, created);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (jmx) {
+            registerMBean(created, JMX_DOMAIN + ":type=Operation,name=" + ObjectName.quote(name));
+        }
+        return created;
+    }
+
+    public Collection<OperationMetrics> getOperations() {
+        return operations.values();
+    }
+
+    public synchronized void recordSlowQuery(String sql, double elapsedMillis, String profile) {
+        slowQueries.addFirst(new SlowQuery(Instant.now(), sql, elapsedMillis, profile));
+        while (slowQueries.size() > SLOW_QUERY_HISTORY) {
+            slowQueries.removeLast();
+        }
+    }
+
+    /**
+     * Most recent slow queries first
+     */
+    public synchronized List<SlowQuery> getSlowQueries() {
+        return new ArrayList<>(slowQueries);
+    }
+
+    /**
+     * All operations in the Prometheus text exposition format
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP lake_operation_seconds Latency of lake operations\n");
+        out.append("# TYPE lake_operation_seconds histogram\n");
+        for (OperationMetrics op : operations.values()) {
+            String label = "operation=\"" + op.getName() + "\"";
+            long[] cumulative = op.getCumulativeBucketCounts();
+            for (int i = 0; i < cumulative.length; i++) {
+                out.append("lake_operation_seconds_bucket{").append(label)
+                    .append(",le=\"").append(OperationMetrics.LATENCY_BUCKETS_SECONDS[i]).append("\"} ")
+                    .append(cumulative[i]).append('\n');
+            }
+            out.append("lake_operation_seconds_bucket{").append(label).append(",le=\"+Inf\"} ")
+                .append(op.getCount()).append('\n');
+            out.append("lake_operation_seconds_sum{").append(label).append("} ")
+                .append(String.format(Locale.ROOT, "%.6f", op.getTotalMillis() / 1000)).append('\n');
+            out.append("lake_operation_seconds_count{").append(label).append("} ").append(op.getCount()).append('\n');
+        }
+        appendCounter(out, "lake_operation_errors_total", "Failed lake operations", OperationMetrics::getErrors);
+        appendCounter(out, "lake_operation_bytes_total", "Bytes transferred by lake operations", OperationMetrics::getBytes);
+        appendCounter(out, "lake_operation_rows_total", "Rows read or written by lake operations", OperationMetrics::getRows);
+        return out.toString();
+    }
+
+    private void appendCounter(StringBuilder out, String name, String help,
+                               ToLongFunction<OperationMetrics> value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        for (OperationMetrics op : operations.values()) {
+            out.append(name).append("{operation=\"").append(op.getName()).append("\"} ")
+                .append(value.applyAsLong(op)).append('\n');
+        }
+    }
+
+    private static void registerMBean(Object bean, String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(bean, objectName);
+            }
+        } catch (JMException e) {
+            logger.warn("Could not register MBean {}", name, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Local HTTP scrape endpoint for a metrics registry:
+ * /metrics serves the Prometheus text format, /slow-queries the recent EXPLAIN ANALYZE profiles.
+ */
+public class MetricsEndpoint implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsEndpoint.class);
+
+    private final HttpServer server;
+
+    public MetricsEndpoint(LakeMetrics metrics, int port) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/metrics", exchange ->
+            respond(exchange, "text/plain; version=0.0.4", metrics.toPrometheus()));
+        server.createContext("/slow-queries", exchange -> {
+            StringBuilder body = new StringBuilder();
+            for (LakeMetrics.SlowQuery query : metrics.getSlowQueries()) {
+                body.append(String.format("-- %s, %.1f ms%n%s%n%s%n%n",
+                    query.time(), query.elapsedMillis(), query.sql(), query.profile()));
+            }
+            respond(exchange, "text/plain", body.toString());
+        });
+    }
+
+    /**
+     * Start serving on a background thread
+     */
+    public void start() {
+        server.start();
+        logger.info("Metrics endpoint listening on http://localhost:{}/metrics", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
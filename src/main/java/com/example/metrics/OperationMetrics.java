@@ -0,0 +1,113 @@
+package com.example.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram plus call, error, byte and row counters for one operation.
+ * Updates are lock-free, so recording on hot paths costs a few adder increments.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    /**
+     * Upper bounds of the latency histogram buckets, in seconds
+     */
+    public static final double[] LATENCY_BUCKETS_SECONDS = {
+        0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5, 10, 60
+    };
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS_SECONDS.length];
+
+    OperationMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    void record(long nanos, long byteCount, long rowCount, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        bytes.add(byteCount);
+        rows.add(rowCount);
+
+        double seconds = nanos / 1_000_000_000.0;
+        for (int i = 0; i < buckets.length; i++) {
+            if (seconds <= LATENCY_BUCKETS_SECONDS[i]) {
+                buckets[i].increment();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Calls that finished within each bucket bound (cumulative, as in Prometheus histograms)
+     */
+    public long[] getCumulativeBucketCounts() {
+        long[] cumulative = new long[buckets.length];
+        long running = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            running += buckets[i].sum();
+            cumulative[i] = running;
+        }
+        return cumulative;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return totalNanos.sum() / 1_000_000.0;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long calls = count.sum();
+        return calls == 0 ? 0.0 : getTotalMillis() / calls;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d calls, %d errors, %.1f ms mean, %.1f ms max, %d bytes, %d rows",
+            name, getCount(), getErrors(), getMeanMillis(), getMaxMillis(), getBytes(), getRows());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.metrics;
+
+/**
+ * JMX view of one instrumented operation (e.g. minio.upload, duckdb.query)
+ */
+public interface OperationMetricsMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrors();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    long getBytes();
+
+    long getRows();
+}
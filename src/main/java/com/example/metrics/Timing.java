@@ -0,0 +1,38 @@
+package com.example.metrics;
+
+/**
+ * One in-flight operation measurement. Call stop() when the operation succeeds;
+ * closing without stop() records the call as an error.
+ */
+public class Timing implements AutoCloseable {
+    private final OperationMetrics operation;
+    private final long start = System.nanoTime();
+    private boolean recorded;
+
+    Timing(OperationMetrics operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Record a successful call with the bytes and rows it moved
+     *
+     * @return elapsed nanoseconds
+     */
+    public long stop(long bytes, long rows) {
+        return record(bytes, rows, false);
+    }
+
+    @Override
+    public void close() {
+        record(0, 0, true);
+    }
+
+    private long record(long bytes, long rows, boolean failed) {
+        long elapsed = System.nanoTime() - start;
+        if (!recorded) {
+            recorded = true;
+            operation.record(elapsed, Math.max(bytes, 0), Math.max(rows, 0), failed);
+        }
+        return elapsed;
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.server;
+
+import com.example.service.DuckDBService;
+import com.example.service.QueryCursor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived local HTTP/JSON query endpoint over a warm DuckDBService.
+ * POST /query with the SQL as the request body runs it on a pooled connection and streams
+ * the result as {"columns": [...], "rows": [[...], ...], "rowCount": n}, values as JSON strings.
+ * The X-Query-Id response header identifies the query for POST /cancel?id=.
+ * Requests are handled on virtual threads; concurrency is bounded by the connection pool.
+ * Every query is cancelled when it runs past its timeout (?timeoutMs=, capped at maxTimeout)
+ * or when the client disconnects.
+ */
+public class QueryServer implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(QueryServer.class);
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    public static final Duration DEFAULT_MAX_TIMEOUT = Duration.ofMinutes(10);
+    private static final int MAX_SQL_BYTES = 1 << 20;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final DuckDBService duckDBService;
+    private final Duration defaultTimeout;
+    private final Duration maxTimeout;
+    private final HttpServer server;
+    private final ExecutorService handlers = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "query-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, RunningQuery> running = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public QueryServer(DuckDBService duckDBService, int port) throws IOException {
+        this(duckDBService, port, DEFAULT_TIMEOUT, DEFAULT_MAX_TIMEOUT);
+    }
+
+    public QueryServer(DuckDBService duckDBService, int port,
+                       Duration defaultTimeout, Duration maxTimeout) throws IOException {
+        if (defaultTimeout.isNegative() || defaultTimeout.isZero() || maxTimeout.compareTo(defaultTimeout) < 0) {
+            throw new IllegalArgumentException("Invalid query timeouts: " + defaultTimeout + ", max " + maxTimeout);
+        }
+        this.duckDBService = duckDBService;
+        this.defaultTimeout = defaultTimeout;
+        this.maxTimeout = maxTimeout;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(handlers);
+        server.createContext("/query", this::handleQuery);
+        server.createContext("/cancel", this::handleCancel);
+    }
+
+    /**
+     * Start serving; each request runs on its own virtual thread
+     */
+    public void start() {
+        server.start();
+        logger.info("Query server listening on http://localhost:{}/query", getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Number of queries currently executing or streaming
+     */
+    public int getRunningCount() {
+        return running.size();
+    }
+
+    private void handleQuery(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respondError(exchange, 405, "Use POST with the SQL as the request body");
+                return;
+            }
+            String sql = readSql(exchange);
+            if (sql == null) {
+                respondError(exchange, 413, "Query exceeds " + MAX_SQL_BYTES + " bytes");
+                return;
+            }
+            if (!DuckDBService.isReadQuery(sql) || sql.indexOf(';') >= 0) {
+                respondError(exchange, 400, "Only a single SELECT, WITH or FROM query is accepted");
+                return;
+            }
+
+            Duration timeout;
+            try {
+                timeout = timeout(queryParams(exchange).get("timeoutMs"));
+            } catch (NumberFormatException e) {
+                respondError(exchange, 400, "Invalid timeoutMs");
+                return;
+            }
+            runQuery(exchange, sql, timeout);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void runQuery(HttpExchange exchange, String sql, Duration timeout) throws IOException {
+        long id = nextId.getAndIncrement();
+        RunningQuery query = new RunningQuery(sql);
+        running.put(id, query);
+        ScheduledFuture<?> deadline = timeouts.schedule(
+            () -> query.cancel("timed out after " + timeout.toMillis() + " ms"), timeout.toMillis(), TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        try (QueryCursor cursor = duckDBService.streamReadQuery(sql, query::attach)) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("X-Query-Id", Long.toString(id));
+            // Length 0 selects chunked encoding, so rows go out as they are read
+            exchange.sendResponseHeaders(200, 0);
+            Writer out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            try {
+                streamRows(cursor, query, out);
+                out.flush();
+            } catch (IOException e) {
+                cursor.abort();
+                throw e;
+            }
+            logger.info("Query {} returned {} rows in {} ms", id, cursor.getRowCount(),
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            if (query.cancelReason() != null) {
+                respondError(exchange, 504, "Query " + query.cancelReason());
+            } else if (e.getMessage() != null && e.getMessage().startsWith("Timed out")) {
+                respondError(exchange, 503, e.getMessage());
+            } else {
+                respondError(exchange, 400, e.getMessage());
+            }
+        } catch (RuntimeException e) {
+            if (query.cancelReason() == null) {
+                throw e;
+            }
+            respondError(exchange, 504, "Query " + query.cancelReason());
+        } catch (IOException e) {
+            // Client went away mid-stream; closing the cursor has already stopped the query
+            logger.info("Query {} abandoned by client after {} ms", id, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            deadline.cancel(false);
+            running.remove(id);
+        }
+    }
+
+    // Rows are written as they come off the cursor; a failure after the header is reported in the body
+    private static void streamRows(QueryCursor cursor, RunningQuery query, Writer out) throws IOException {
+        out.write("{\"columns\":");
+        writeArray(out, cursor.getHeaders());
+        out.write(",\"rows\":[");
+        String error = null;
+        try {
+            boolean first = true;
+            while (cursor.hasNext()) {
+                if (!first) {
+                    out.write(',');
+                }
+                writeArray(out, cursor.next());
+                first = false;
+            }
+        } catch (IllegalStateException e) {
+            error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        }
+        // A cancelled statement just ends its result set, so the trailer marks the rows as partial
+        query.finish();
+        if (query.cancelReason() != null) {
+            error = "Query " + query.cancelReason();
+        }
+        if (error != null) {
+            // Partial results are recorded as failed queries and never profiled
+            cursor.abort();
+        }
+        out.write("],\"rowCount\":");
+        out.write(Long.toString(cursor.getRowCount()));
+        if (error != null) {
+            out.write(",\"error\":");
+            writeString(out, error);
+        }
+        out.write('}');
+    }
+
+    private void handleCancel(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respondError(exchange, 405, "Use POST /cancel?id=<query id>");
+                return;
+            }
+            RunningQuery query;
+            try {
+                query = running.get(Long.parseLong(queryParams(exchange).getOrDefault("id", "")));
+            } catch (NumberFormatException e) {
+                respondError(exchange, 400, "Invalid query id");
+                return;
+            }
+            boolean cancelled = query != null && query.cancel("cancelled by request");
+            respond(exchange, 200, "{\"cancelled\":" + cancelled + "}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Duration timeout(String timeoutMillis) {
+        if (timeoutMillis == null) {
+            return defaultTimeout;
+        }
+        long millis = Long.parseLong(timeoutMillis);
+        if (millis <= 0) {
+            throw new NumberFormatException("Timeout must be positive: " + millis);
+        }
+        Duration requested = Duration.ofMillis(millis);
+        return requested.compareTo(maxTimeout) > 0 ? maxTimeout : requested;
+    }
+
+    // Request body as SQL, or null when it is larger than the limit
+    private static String readSql(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_SQL_BYTES + 1);
+            if (body.length > MAX_SQL_BYTES) {
+                return null;
+            }
+            String sql = new String(body, StandardCharsets.UTF_8).strip();
+            // A single trailing semicolon is harmless
+            return sql.endsWith(";") ? sql.substring(0, sql.length() - 1).strip() : sql;
+        }
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder("{\"error\":");
+        appendString(body, message == null ? "Query failed" : message);
+        respond(exchange, status, body.append('}').toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void writeArray(Writer out, String[] values) throws IOException {
+        out.write('[');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            if (values[i] == null) {
+                out.write("null");
+            } else {
+                writeString(out, values[i]);
+            }
+        }
+        out.write(']');
+    }
+
+    private static void writeString(Writer out, String value) throws IOException {
+        StringBuilder quoted = new StringBuilder(value.length() + 2);
+        appendString(quoted, value);
+        out.write(quoted.toString());
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+
+    /**
+     * Stop accepting requests, cancel running queries and give them a second to unwind
+     */
+    @Override
+    public void close() {
+        for (RunningQuery query : running.values()) {
+            query.cancel("cancelled by server shutdown");
+        }
+        server.stop(1);
+        handlers.shutdown();
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * A query in progress; the statement is attached once a connection is acquired,
+     * and a query cancelled before that never starts
+     */
+    private static class RunningQuery {
+        private final String sql;
+        private Statement statement;
+        private String cancelReason;
+        private boolean finished;
+
+        RunningQuery(String sql) {
+            this.sql = sql;
+        }
+
+        synchronized void attach(Statement statement) {
+            if (cancelReason != null) {
+                throw new IllegalStateException("Query " + cancelReason);
+            }
+            this.statement = statement;
+        }
+
+        synchronized boolean cancel(String reason) {
+            if (cancelReason != null || finished) {
+                return false;
+            }
+            cancelReason = reason;
+            if (statement != null) {
+                cancelStatement();
+            }
+            return true;
+        }
+
+        // All rows were read; a cancel arriving now would no longer cut the result short
+        synchronized void finish() {
+            finished = true;
+        }
+
+        synchronized String cancelReason() {
+            return cancelReason;
+        }
+
+        private void cancelStatement() {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.warn("Could not cancel query: {} ({})", sql, e.getMessage());
+            }
+        }
+    }
+}
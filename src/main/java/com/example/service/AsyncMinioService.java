@@ -0,0 +1,317 @@
+package com.example.service;
+
+import com.example.metrics.LakeMetrics;
+import com.example.metrics.Timing;
+import io.minio.DownloadObjectArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import io.minio.StatObjectArgs;
+import io.minio.UploadObjectArgs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking MinIO operations returning CompletableFutures, built on the async MinIO client.
+ * At most maxInFlight requests are on the wire at once; further calls queue without blocking
+ * the caller and start as earlier ones finish. Cancelling a queued call means it is never sent;
+ * cancelling a call in flight completes its future at once, while its slot is held until the
+ * HTTP exchange ends so the bound stays honest.
+ */
+public class AsyncMinioService implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncMinioService.class);
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private final MinioService minioService;
+    private final MinioAsyncClient client;
+    private final String bucketName;
+    private final int maxInFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LakeMetrics metrics = LakeMetrics.global();
+    private final Queue<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    AsyncMinioService(MinioService minioService, MinioAsyncClient client, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in-flight requests must be positive: " + maxInFlight);
+        }
+        this.minioService = minioService;
+        this.client = client;
+        this.bucketName = minioService.getBucketName();
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Upload a local file as one PUT
+     *
+     * @return future of the object's ETag
+     */
+    public CompletableFuture<String> uploadAsync(String objectName, Path file, String contentType) {
+        return submit(MinioService.UPLOAD, () -> client.uploadObject(
+            UploadObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .filename(file.toString())
+                .contentType(contentType)
+                .build()
+        ).thenApply(response -> {
+            minioService.notifyObjectChanged(objectName);
+            return new Transfer<>(bareEtag(response.etag()), fileSize(file));
+        }));
+    }
+
+    /**
+     * Upload a byte array as one PUT
+     *
+     * @return future of the object's ETag
+     */
+    public CompletableFuture<String> uploadAsync(String objectName, byte[] data, String contentType) {
+        return submit(MinioService.UPLOAD, () -> client.putObject(
+            PutObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .stream(new ByteArrayInputStream(data), data.length, -1)
+                .contentType(contentType)
+                .build()
+        ).thenApply(response -> {
+            minioService.notifyObjectChanged(objectName);
+            return new Transfer<>(bareEtag(response.etag()), data.length);
+        }));
+    }
+
+    /**
+     * Download an object into a local file, replacing an existing one
+     */
+    public CompletableFuture<Path> downloadAsync(String objectName, Path target) {
+        return submit(MinioService.DOWNLOAD, () -> client.downloadObject(
+            DownloadObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .filename(target.toString())
+                .overwrite(true)
+                .build()
+        ).thenApply(ignored -> new Transfer<>(target, fileSize(target))));
+    }
+
+    /**
+     * Read a small object fully into memory
+     */
+    public CompletableFuture<byte[]> getBytesAsync(String objectName) {
+        return submit(MinioService.DOWNLOAD, () -> client.getObject(
+            GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build()
+        ).thenApply(response -> {
+            try (GetObjectResponse body = response) {
+                byte[] data = body.readAllBytes();
+                return new Transfer<>(data, data.length);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }));
+    }
+
+    public CompletableFuture<ObjectInfo> statAsync(String objectName) {
+        return submit(MinioService.STAT, () -> client.statObject(
+            StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build()
+        ).thenApply(stat -> new Transfer<>(
+            new ObjectInfo(objectName, stat.size(), stat.etag(), stat.lastModified()), 0
+        )));
+    }
+
+    /**
+     * List every object under a prefix; listing pages are fetched on a virtual thread
+     */
+    public CompletableFuture<List<ObjectInfo>> listAsync(String prefix) {
+        return submit(null, () -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return new Transfer<>(minioService.listObjectInfo(prefix), 0);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor));
+    }
+
+    public CompletableFuture<Void> deleteAsync(String objectName) {
+        return submit(MinioService.DELETE, () -> client.removeObject(
+            RemoveObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build()
+        ).thenApply(ignored -> {
+            minioService.notifyObjectChanged(objectName);
+            return new Transfer<Void>(null, 0);
+        }));
+    }
+
+    /**
+     * Download objects into a directory concurrently, up to the in-flight bound.
+     * Files are named by position plus the object's extension (0.csv, 1.csv.gz, ...) in the order
+     * of objectNames, so compressed objects stay compressed on disk.
+     * Cancelling the returned future cancels every download not yet finished.
+     */
+    public CompletableFuture<List<Path>> downloadAllAsync(List<String> objectNames, Path dir) {
+        List<CompletableFuture<Path>> downloads = new ArrayList<>(objectNames.size());
+        for (int i = 0; i < objectNames.size(); i++) {
+            String objectName = objectNames.get(i);
+            downloads.add(downloadAsync(objectName, dir.resolve(i + CsvCompression.fileExtension(objectName))));
+        }
+        return allOf(downloads);
+    }
+
+    /**
+     * Complete with every result in order, or fail with the first failure and cancel the rest.
+     * Cancelling the returned future cancels the inputs.
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> all = CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new))
+            .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((value, error) -> {
+                if (error != null) {
+                    all.completeExceptionally(error);
+                }
+            });
+        }
+        all.whenComplete((value, error) -> {
+            if (error != null) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        });
+        return all;
+    }
+
+    // Result of one call plus the bytes it moved, for metrics
+    private record Transfer<T>(T value, long bytes) {
+    }
+
+    @FunctionalInterface
+    private interface Call<T> {
+        CompletableFuture<Transfer<T>> start() throws Exception;
+    }
+
+    // Start the call now if a slot is free, otherwise queue it; the slot is released when the call ends
+    private <T> CompletableFuture<T> submit(String operation, Call<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            if (result.isDone()) {
+                // Cancelled while queued
+                release();
+                return;
+            }
+            Timing timing = operation == null ? null : metrics.start(operation);
+            CompletableFuture<Transfer<T>> request;
+            try {
+                request = call.start();
+            } catch (Exception e) {
+                finish(timing, null);
+                result.completeExceptionally(e);
+                release();
+                return;
+            }
+            request.whenComplete((transfer, error) -> {
+                finish(timing, error == null ? transfer : null);
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                } else {
+                    result.complete(transfer.value());
+                }
+            });
+        };
+
+        boolean startNow;
+        synchronized (waiting) {
+            startNow = inFlight < maxInFlight;
+            if (startNow) {
+                inFlight++;
+            } else {
+                waiting.add(start);
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private void release() {
+        Runnable next;
+        synchronized (waiting) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+            }
+        }
+        if (next != null) {
+            // The slot passes straight to the next queued call, started off this thread
+            // so a run of immediate completions cannot recurse through the queue
+            try {
+                executor.execute(next);
+            } catch (RejectedExecutionException e) {
+                next.run();
+            }
+        }
+    }
+
+    private static void finish(Timing timing, Transfer<?> transfer) {
+        if (timing == null) {
+            return;
+        }
+        if (transfer != null) {
+            timing.stop(transfer.bytes(), 0);
+        } else {
+            timing.close();
+        }
+    }
+
+    private static String bareEtag(String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(file);
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Stop the dispatch threads; calls already started complete on the MinIO client's threads
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        synchronized (waiting) {
+            if (!waiting.isEmpty()) {
+                logger.warn("Closing with {} queued MinIO requests", waiting.size());
+            }
+        }
+    }
+}
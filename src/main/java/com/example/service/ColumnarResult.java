@@ -0,0 +1,517 @@
+package com.example.service;
+
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query result stored column by column in primitive vectors.
+ * Integer columns become long[], floating point and DECIMAL columns double[],
+ * DATE columns int[] of epoch days, and everything else dictionary-encoded strings,
+ * so aggregations can run over the values without boxing or parsing.
+ * Vectors are filled from a JDBC ResultSet or, column by column, from Arrow record batches;
+ * results with text columns other than VARCHAR (ENUM, TIMESTAMP, ...) are read over JDBC,
+ * whose rendering Arrow vectors do not reproduce.
+ * The arrays returned by the column accessors are shared and must not be modified.
+ */
+public class ColumnarResult {
+
+    /**
+     * One result column; null entries are tracked separately from the values
+     */
+    public abstract static sealed class Column permits LongColumn, DoubleColumn, DateColumn, StringColumn {
+        private final String name;
+        private final String type;
+        private final BitSet nulls = new BitSet();
+        int size;
+
+        Column(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * DuckDB type name of the column, e.g. BIGINT or DECIMAL(18,3)
+         */
+        public String getType() {
+            return type;
+        }
+
+        public boolean isNull(int row) {
+            return nulls.get(row);
+        }
+
+        /**
+         * Value of the row rendered as text, or null
+         */
+        public abstract String getString(int row);
+
+        abstract void read(ResultSet resultSet, int columnIndex) throws SQLException;
+
+        abstract void read(FieldVector vector, int row);
+
+        abstract void trim();
+
+        void markNull() {
+            nulls.set(size);
+        }
+    }
+
+    /**
+     * BIGINT, INTEGER, SMALLINT, TINYINT and HUGEINT values (nulls read as 0).
+     * A HUGEINT value outside the long range fails the read instead of wrapping.
+     */
+    public static final class LongColumn extends Column {
+        private long[] values;
+
+        LongColumn(String name, String type, int capacity) {
+            super(name, type);
+            this.values = new long[capacity];
+        }
+
+        public long[] getValues() {
+            return values;
+        }
+
+        public long get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public String getString(int row) {
+            return isNull(row) ? null : Long.toString(values[row]);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            if (getType().equals("HUGEINT")) {
+                Object value = resultSet.getObject(columnIndex);
+                if (value == null) {
+                    markNull();
+                } else {
+                    try {
+                        values[size] = exactLong((Number) value);
+                    } catch (ArithmeticException e) {
+                        throw new SQLException(e.getMessage(), e);
+                    }
+                }
+            } else {
+                values[size] = resultSet.getLong(columnIndex);
+                if (resultSet.wasNull()) {
+                    markNull();
+                }
+            }
+            size++;
+        }
+
+        @Override
+        void read(FieldVector vector, int row) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            if (vector.isNull(row)) {
+                markNull();
+            } else if (vector instanceof BaseIntVector ints) {
+                values[size] = ints.getValueAsLong(row);
+            } else {
+                // HUGEINT arrives as a 128-bit decimal
+                values[size] = exactLong((Number) vector.getObject(row));
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+
+        private long exactLong(Number value) {
+            try {
+                if (value instanceof BigInteger big) {
+                    return big.longValueExact();
+                }
+                if (value instanceof BigDecimal decimal) {
+                    return decimal.toBigIntegerExact().longValueExact();
+                }
+                return value.longValue();
+            } catch (ArithmeticException e) {
+                throw new ArithmeticException(String.format(
+                    "Column %s value %s does not fit in a long; cast it to DOUBLE or DECIMAL", getName(), value));
+            }
+        }
+    }
+
+    /**
+     * DOUBLE, FLOAT and DECIMAL values (nulls read as 0.0)
+     */
+    public static final class DoubleColumn extends Column {
+        private double[] values;
+
+        DoubleColumn(String name, String type, int capacity) {
+            super(name, type);
+            this.values = new double[capacity];
+        }
+
+        public double[] getValues() {
+            return values;
+        }
+
+        public double get(int row) {
+            return values[row];
+        }
+
+        @Override
+        public String getString(int row) {
+            return isNull(row) ? null : Double.toString(values[row]);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            values[size] = resultSet.getDouble(columnIndex);
+            if (resultSet.wasNull()) {
+                markNull();
+            }
+            size++;
+        }
+
+        @Override
+        void read(FieldVector vector, int row) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(size));
+            }
+            if (vector.isNull(row)) {
+                markNull();
+            } else if (vector instanceof Float8Vector doubles) {
+                values[size] = doubles.get(row);
+            } else {
+                values[size] = ((Number) vector.getObject(row)).doubleValue();
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * DATE values as days since 1970-01-01 (nulls read as 0)
+     */
+    public static final class DateColumn extends Column {
+        private int[] epochDays;
+
+        DateColumn(String name, String type, int capacity) {
+            super(name, type);
+            this.epochDays = new int[capacity];
+        }
+
+        public int[] getEpochDays() {
+            return epochDays;
+        }
+
+        public LocalDate get(int row) {
+            return isNull(row) ? null : LocalDate.ofEpochDay(epochDays[row]);
+        }
+
+        @Override
+        public String getString(int row) {
+            return isNull(row) ? null : get(row).toString();
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex) throws SQLException {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, grow(size));
+            }
+            Object value = resultSet.getObject(columnIndex);
+            if (value == null) {
+                markNull();
+            } else {
+                epochDays[size] = Math.toIntExact(((LocalDate) value).toEpochDay());
+            }
+            size++;
+        }
+
+        @Override
+        void read(FieldVector vector, int row) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, grow(size));
+            }
+            if (vector.isNull(row)) {
+                markNull();
+            } else {
+                epochDays[size] = ((DateDayVector) vector).get(row);
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            epochDays = Arrays.copyOf(epochDays, size);
+        }
+    }
+
+    /**
+     * Any other type as text, dictionary-encoded: each distinct value is stored once
+     * and rows hold an index into the dictionary (-1 for null)
+     */
+    public static final class StringColumn extends Column {
+        private int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+
+        StringColumn(String name, String type, int capacity) {
+            super(name, type);
+            this.codes = new int[capacity];
+        }
+
+        public int[] getCodes() {
+            return codes;
+        }
+
+        /**
+         * Distinct values in order of first appearance, indexed by code
+         */
+        public List<String> getDictionary() {
+            return dictionary;
+        }
+
+        public int getCode(int row) {
+            return codes[row];
+        }
+
+        @Override
+        public String getString(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        @Override
+        void read(ResultSet resultSet, int columnIndex) throws SQLException {
+            append(resultSet.getString(columnIndex));
+        }
+
+        @Override
+        void read(FieldVector vector, int row) {
+            if (vector.isNull(row)) {
+                append(null);
+            } else if (vector instanceof VarCharVector strings) {
+                append(new String(strings.get(row), StandardCharsets.UTF_8));
+            } else {
+                // Large VARCHAR vectors hold UTF-8 Text values
+                append(vector.getObject(row).toString());
+            }
+        }
+
+        private void append(String value) {
+            if (size == codes.length) {
+                codes = Arrays.copyOf(codes, grow(size));
+            }
+            if (value == null) {
+                markNull();
+                codes[size] = -1;
+            } else {
+                codes[size] = codeByValue.computeIfAbsent(value, key -> {
+                    dictionary.add(key);
+                    return dictionary.size() - 1;
+                });
+            }
+            size++;
+        }
+
+        @Override
+        void trim() {
+            codes = Arrays.copyOf(codes, size);
+        }
+    }
+
+    private final Column[] columns;
+    private final int rowCount;
+
+    private ColumnarResult(Column[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Read every row of the result set into column vectors, growing them batchSize rows at a time at first
+     */
+    static ColumnarResult read(ResultSet resultSet, int batchSize) throws SQLException {
+        ResultSetMetaData metadata = resultSet.getMetaData();
+        Column[] columns = new Column[metadata.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(metadata, i + 1, batchSize);
+        }
+
+        int rowCount = 0;
+        while (resultSet.next()) {
+            if (rowCount == Integer.MAX_VALUE - 8) {
+                throw new SQLException("Result too large for columnar vectors; use streamQuery instead");
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].read(resultSet, i + 1);
+            }
+            rowCount++;
+        }
+
+        for (Column column : columns) {
+            column.trim();
+        }
+        return new ColumnarResult(columns, rowCount);
+    }
+
+    /**
+     * Read every Arrow record batch into column vectors, typed by the JDBC metadata of the same result
+     */
+    static ColumnarResult read(ResultSetMetaData metadata, ArrowReader reader, int batchSize) throws SQLException, IOException {
+        Column[] columns = new Column[metadata.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(metadata, i + 1, batchSize);
+        }
+
+        long rowCount = 0;
+        VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        while (reader.loadNextBatch()) {
+            int batchRows = root.getRowCount();
+            if (rowCount + batchRows > Integer.MAX_VALUE - 8) {
+                throw new SQLException("Result too large for columnar vectors; use streamQuery instead");
+            }
+            // Column at a time: each vector is scanned sequentially
+            for (int i = 0; i < columns.length; i++) {
+                FieldVector vector = root.getVector(i);
+                for (int row = 0; row < batchRows; row++) {
+                    columns[i].read(vector, row);
+                }
+            }
+            rowCount += batchRows;
+        }
+
+        for (Column column : columns) {
+            column.trim();
+        }
+        return new ColumnarResult(columns, (int) rowCount);
+    }
+
+    /**
+     * Whether every column reads the same from Arrow batches as over JDBC: numeric, DATE and
+     * VARCHAR columns do; ENUM values arrive as dictionary indexes and temporal types format differently
+     */
+    static boolean isArrowReadable(ResultSetMetaData metadata) throws SQLException {
+        for (int i = 1; i <= metadata.getColumnCount(); i++) {
+            if (createColumn(metadata, i, 0) instanceof StringColumn && !metadata.getColumnTypeName(i).equals("VARCHAR")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Column createColumn(ResultSetMetaData metadata, int index, int capacity) throws SQLException {
+        String name = metadata.getColumnName(index);
+        String type = metadata.getColumnTypeName(index);
+        return switch (metadata.getColumnType(index)) {
+            case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT -> new LongColumn(name, type, capacity);
+            case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> new DoubleColumn(name, type, capacity);
+            case Types.DATE -> new DateColumn(name, type, capacity);
+            default -> type.equals("HUGEINT")
+                ? new LongColumn(name, type, capacity)
+                : new StringColumn(name, type, capacity);
+        };
+    }
+
+    // Double the capacity, staying below the maximum array length
+    private static int grow(int size) {
+        return (int) Math.min((long) size * 2 + 16, Integer.MAX_VALUE - 8);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String[] getColumnNames() {
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * Column by zero-based index
+     */
+    public Column getColumn(int index) {
+        return columns[index];
+    }
+
+    /**
+     * Column by name (case-insensitive)
+     */
+    public Column getColumn(String name) {
+        for (Column column : columns) {
+            if (column.getName().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("No column named " + name);
+    }
+
+    public LongColumn getLongColumn(String name) {
+        return typedColumn(name, LongColumn.class);
+    }
+
+    public DoubleColumn getDoubleColumn(String name) {
+        return typedColumn(name, DoubleColumn.class);
+    }
+
+    public DateColumn getDateColumn(String name) {
+        return typedColumn(name, DateColumn.class);
+    }
+
+    public StringColumn getStringColumn(String name) {
+        return typedColumn(name, StringColumn.class);
+    }
+
+    private <T extends Column> T typedColumn(String name, Class<T> columnClass) {
+        Column column = getColumn(name);
+        if (!columnClass.isInstance(column)) {
+            throw new IllegalArgumentException(String.format(
+                "Column %s has type %s, not %s", name, column.getType(), columnClass.getSimpleName()
+            ));
+        }
+        return columnClass.cast(column);
+    }
+}
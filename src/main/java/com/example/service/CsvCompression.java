@@ -0,0 +1,108 @@
+package com.example.service;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to CSV objects on upload. The codec is part of the object name
+ * (sales/sales_data.csv.gz), which is also how DuckDB picks the decompressor when it
+ * reads the object, so compressed objects load without being inflated first.
+ */
+public enum CsvCompression {
+    NONE(null, ""),
+    GZIP("gzip", ".gz"),
+    ZSTD("zstd", ".zst");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+    private final String extension;
+
+    CsvCompression(String contentEncoding, String extension) {
+        this.contentEncoding = contentEncoding;
+        this.extension = extension;
+    }
+
+    /**
+     * Value of the Content-Encoding header, or null when uncompressed
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Suffix appended after .csv, e.g. ".gz"
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Name under which a CSV object is stored with this compression
+     */
+    public String objectName(String csvObjectName) {
+        CsvCompression current = fromObjectName(csvObjectName);
+        String base = csvObjectName.substring(0, csvObjectName.length() - current.extension.length());
+        return base + extension;
+    }
+
+    /**
+     * Wrap a stream so that bytes written to it are compressed; closing it finishes the frame
+     */
+    public OutputStream compress(OutputStream out) throws IOException {
+        return switch (this) {
+            case NONE -> out;
+            case GZIP -> new GZIPOutputStream(out, BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(out);
+        };
+    }
+
+    /**
+     * Wrap a stream of compressed bytes so that reads return the original CSV
+     */
+    public InputStream decompress(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, BUFFER_SIZE);
+            case ZSTD -> new ZstdInputStream(in);
+        };
+    }
+
+    /**
+     * Compression of an object, judged by its name
+     */
+    public static CsvCompression fromObjectName(String objectName) {
+        for (CsvCompression compression : values()) {
+            if (compression != NONE && objectName.endsWith(".csv" + compression.extension)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Whether an object name ends with suffix; a ".csv" suffix also matches compressed CSV objects
+     */
+    public static boolean matches(String objectName, String suffix) {
+        return objectName.endsWith(suffix)
+            || (".csv".equals(suffix) && fromObjectName(objectName) != NONE);
+    }
+
+    /**
+     * File extension of a lake object including its compression, e.g. ".csv.gz" or ".parquet",
+     * so local copies keep the name DuckDB uses to choose a reader and decompressor
+     */
+    public static String fileExtension(String objectName) {
+        CsvCompression compression = fromObjectName(objectName);
+        if (compression != NONE) {
+            return ".csv" + compression.extension;
+        }
+        return objectName.endsWith(".parquet") ? ".parquet" : ".csv";
+    }
+}
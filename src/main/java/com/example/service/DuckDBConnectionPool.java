@@ -0,0 +1,136 @@
+package com.example.service;
+
+import org.duckdb.DuckDBConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded pool of connections duplicated from one in-process DuckDB database.
+ * Every pooled connection sees the same tables; the semaphore caps concurrent
+ * queries and makes callers wait (back-pressure) when all connections are busy.
+ */
+public class DuckDBConnectionPool implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(DuckDBConnectionPool.class);
+
+    /**
+     * Work to run against a borrowed connection
+     */
+    @FunctionalInterface
+    public interface ConnectionCallback<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    private final DuckDBConnection source;
+    private final int maxConnections;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle = new LinkedBlockingQueue<>();
+    private final List<Connection> created = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public DuckDBConnectionPool(DuckDBConnection source, int maxConnections, long acquireTimeoutMillis) {
+        if (maxConnections <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxConnections);
+        }
+        this.source = source;
+        this.maxConnections = maxConnections;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Number of queries currently holding a connection
+     */
+    public int getActiveCount() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * Borrow a connection, waiting up to the acquire timeout when the pool is exhausted
+     */
+    public Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + acquireTimeoutMillis + " ms waiting for a DuckDB connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a DuckDB connection", e);
+        }
+
+        Connection connection = idle.poll();
+        if (connection != null) {
+            return connection;
+        }
+        try {
+            connection = source.duplicate();
+            created.add(connection);
+            logger.debug("Opened pooled DuckDB connection {}/{}", created.size(), maxConnections);
+            return connection;
+        } catch (SQLException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a borrowed connection to the pool
+     */
+    public void release(Connection connection) {
+        if (closed) {
+            closeQuietly(connection);
+        } else {
+            idle.offer(connection);
+        }
+        permits.release();
+    }
+
+    /**
+     * Run the callback on a pooled connection and return it afterwards
+     */
+    public <T> T withConnection(ConnectionCallback<T> callback) throws SQLException {
+        Connection connection = acquire();
+        try {
+            return callback.apply(connection);
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Close all pooled connections; the source connection is owned by the caller
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection : created) {
+            closeQuietly(connection);
+        }
+        created.clear();
+        idle.clear();
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Error closing pooled DuckDB connection", e);
+        }
+    }
+}
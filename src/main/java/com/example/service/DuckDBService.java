@@ -1,28 +1,201 @@
 package com.example.service;
 
+import com.example.config.DuckDBConfig;
+import com.example.config.MinioConfig;
+import com.example.metrics.LakeMetrics;
+import com.example.metrics.Timing;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.ArrowWriter;
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
+import org.duckdb.DuckDBConnection;
+import org.duckdb.DuckDBDriver;
+import org.duckdb.DuckDBResultSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
- * Service for querying CSV data using DuckDB
+ * Service for querying CSV data using DuckDB.
+ * The primary connection (used by load, DDL and the single-caller helpers) is not thread-safe;
+ * concurrent readers should use executeReadQuery/submitQuery, which run on pooled connections.
  */
 public class DuckDBService {
     private static final Logger logger = LoggerFactory.getLogger(DuckDBService.class);
+    public static final int DEFAULT_FETCH_SIZE = 2048;
+    public static final int PARQUET_ROW_GROUP_SIZE = 122880;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30_000;
+    public static final int ARROW_BATCH_SIZE = 65_536;
+    public static final int STATEMENT_CACHE_SIZE = 64;
+    public static final long DEFAULT_SLOW_QUERY_MILLIS = 1_000;
+    public static final long PROFILE_TIMEOUT_MILLIS = 10_000;
+    // Name of the prepared statement a parameterized slow query is profiled through
+    private static final String PROFILE_STATEMENT = "slow_query_profile";
+
+    // Operation names recorded in LakeMetrics
+    public static final String QUERY = "duckdb.query";
+    public static final String LOAD = "duckdb.load";
+    public static final String EXPORT = "duckdb.export";
+    public static final String APPEND = "duckdb.append";
+
+    /**
+     * Receives each Arrow record batch of an exported result.
+     * The root is reused for the next batch, so vectors must not be kept after accept returns.
+     */
+    @FunctionalInterface
+    public interface ArrowBatchConsumer {
+        void accept(VectorSchemaRoot batch) throws Exception;
+    }
+
+    /**
+     * Work run by runInTransaction against this service
+     */
+    @FunctionalInterface
+    public interface TransactionWork {
+        void run() throws Exception;
+    }
+
+    private final DuckDBConfig config;
     private Connection connection;
+    private final DuckDBConnectionPool pool;
+    private final StatementCache statementCache;
+    private final ExecutorService queryExecutor;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private String objectStoreBucket;
+    private BufferAllocator arrowAllocator;
+    private Boolean arrowAvailable;
+    private final LakeMetrics metrics = LakeMetrics.global();
+    private volatile long slowQueryMillis = DEFAULT_SLOW_QUERY_MILLIS;
 
     public DuckDBService() throws SQLException {
-        // Create in-memory DuckDB database
-        this.connection = DriverManager.getConnection("jdbc:duckdb:");
-        logger.info("DuckDB connection established");
+        this(DuckDBConfig.getDefaultConfig());
+    }
+
+    /**
+     * Create in-memory service with at most maxConcurrentQueries pooled read connections
+     */
+    public DuckDBService(int maxConcurrentQueries) throws SQLException {
+        this(new DuckDBConfig(DuckDBConfig.IN_MEMORY, null, 0, null, true, maxConcurrentQueries));
+    }
+
+    /**
+     * Create service for an in-memory or file database with the configured resource limits
+     */
+    public DuckDBService(DuckDBConfig config) throws SQLException {
+        this.config = config;
+        if (!config.isInMemory()) {
+            createParentDirectory(config.getDatabasePath());
+        }
+
+        // Stream results chunk by chunk instead of materializing them
+        Properties properties = new Properties();
+        properties.setProperty(DuckDBDriver.JDBC_STREAM_RESULTS, "true");
+        this.connection = DriverManager.getConnection(config.getJdbcUrl(), properties);
+        applySettings(config);
+        this.pool = new DuckDBConnectionPool(
+            connection.unwrap(DuckDBConnection.class), config.getMaxConcurrentQueries(), DEFAULT_ACQUIRE_TIMEOUT_MILLIS
+        );
+        this.queryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.statementCache = new StatementCache(connection, STATEMENT_CACHE_SIZE);
+        logger.info("DuckDB connection established to {} (max {} concurrent queries)",
+            config.getDatabasePath(), config.getMaxConcurrentQueries());
+    }
+
+    // Database-wide settings; duplicated connections share them
+    private void applySettings(DuckDBConfig config) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (config.getMemoryLimit() != null) {
+                stmt.execute("SET memory_limit = " + quote(config.getMemoryLimit()));
+            }
+            if (config.getThreads() > 0) {
+                stmt.execute("SET threads = " + config.getThreads());
+            }
+            if (config.getTempDirectory() != null) {
+                stmt.execute("SET temp_directory = " + quote(config.getTempDirectory().replace("\\", "/")));
+            }
+            stmt.execute("SET preserve_insertion_order = " + config.isPreserveInsertionOrder());
+        }
+    }
+
+    private static void createParentDirectory(String databasePath) throws SQLException {
+        Path parent = Path.of(databasePath).toAbsolutePath().getParent();
+        try {
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Cannot create database directory " + parent, e);
+        }
+    }
+
+    public DuckDBConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Read queries taking at least this long are profiled with EXPLAIN ANALYZE in the background;
+     * Long.MAX_VALUE turns profiling off (e.g. for benchmarks whose scans are slow by design)
+     */
+    public void setSlowQueryThresholdMillis(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    /**
+     * Get the pool of connections sharing this database
+     */
+    public DuckDBConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    /**
+     * Hit rate and planning time of the prepared statement cache
+     */
+    public StatementCache.Stats getStatementCacheStats() {
+        return statementCache.getStats();
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Set the number of rows requested per fetch for streamed queries
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
     }
 
     /**
@@ -30,17 +203,353 @@ public class DuckDBService {
      */
     public void loadCsvFromFile(String tableName, String filePath) throws SQLException {
         String sql = String.format(
-            "CREATE TABLE %s AS SELECT * FROM read_csv_auto('%s')",
+            "CREATE OR REPLACE TABLE %s AS SELECT * FROM read_csv_auto('%s')",
             tableName,
             filePath.replace("\\", "/")
         );
 
-        try (Statement stmt = connection.createStatement()) {
+        executeLoad(tableName, sql);
+        logger.info("Loaded CSV file {} into table {}", filePath, tableName);
+    }
+
+    /**
+     * Load Parquet file from local path (or s3:// URI) into DuckDB
+     */
+    public void loadParquetFromFile(String tableName, String filePath) throws SQLException {
+        String sql = String.format(
+            "CREATE OR REPLACE TABLE %s AS SELECT * FROM read_parquet(%s)",
+            tableName,
+            quote(filePath.replace("\\", "/"))
+        );
+
+        executeLoad(tableName, sql);
+        logger.info("Loaded Parquet file {} into table {}", filePath, tableName);
+    }
+
+    /**
+     * Write query results to a ZSTD-compressed Parquet file.
+     * DuckDB records min/max statistics per row group, which later scans use for pruning.
+     */
+    public void exportQueryToParquet(String query, String outputPath) throws SQLException {
+        exportQuery(query, outputPath, ExportFormat.PARQUET);
+    }
+
+    /**
+     * Write query results as a Hive-partitioned Parquet directory tree
+     * (outputDir/col=value/data_0.parquet), one directory level per partition column
+     */
+    public void exportQueryToPartitionedParquet(String query, String outputDir, String... partitionColumns) throws SQLException {
+        if (partitionColumns.length == 0) {
+            throw new IllegalArgumentException("At least one partition column is required");
+        }
+        exportQuery(query, outputDir, ExportFormat.PARQUET, partitionColumns);
+    }
+
+    /**
+     * COPY query results to a local path, named pipe or s3:// URI in the given format.
+     * With partition columns the target is a directory (or prefix) of Hive-style partitions.
+     *
+     * @return number of rows written
+     */
+    public long exportQuery(String query, String target, ExportFormat format, String... partitionColumns) throws SQLException {
+        StringBuilder options = new StringBuilder(format.getCopyOptions());
+        if (partitionColumns.length > 0) {
+            options.append(", PARTITION_BY (").append(String.join(", ", partitionColumns)).append(")");
+            if (!target.startsWith("s3://")) {
+                // Local exports go into freshly created directories
+                options.append(", OVERWRITE_OR_IGNORE 1");
+            }
+        }
+        String sql = String.format("COPY (%s) TO %s (%s)", query, quote(target.replace("\\", "/")), options);
+
+        try (Timing timing = metrics.start(EXPORT);
+             Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
-            logger.info("Loaded CSV file {} into table {}", filePath, tableName);
+            long rows = stmt.getUpdateCount();
+            timing.stop(0, rows);
+            logger.info("Query results exported as {} to {} ({} rows)", format, target, rows);
+            return rows;
         }
     }
 
+    /**
+     * Keep only the partitioned object keys that can match the WHERE predicates on partition columns
+     */
+    public List<String> prunePartitions(List<String> objectKeys, String whereClause) {
+        return prunePartitions(objectKeys, whereClause, Map.of());
+    }
+
+    /**
+     * Keep only the partitioned object keys that can match the WHERE predicates on partition columns,
+     * comparing the columns typed as numeric (lower-case name to DuckDB type) as numbers
+     */
+    public List<String> prunePartitions(List<String> objectKeys, String whereClause, Map<String, String> columnTypes) {
+        List<String> selected = PartitionPruner.prune(objectKeys, whereClause, columnTypes);
+        logger.info("Partition pruning kept {} of {} objects", selected.size(), objectKeys.size());
+        return selected;
+    }
+
+    /**
+     * Load a set of Hive-partitioned Parquet files (local paths or s3:// URIs) into a table,
+     * restoring partition columns from the paths and applying the optional WHERE clause
+     */
+    public void loadPartitionedParquet(String tableName, List<String> filePaths, String whereClause) throws SQLException {
+        if (filePaths.isEmpty()) {
+            throw new IllegalArgumentException("No Parquet files to load into " + tableName);
+        }
+        List<String> quoted = new ArrayList<>(filePaths.size());
+        for (String filePath : filePaths) {
+            quoted.add(quote(filePath.replace("\\", "/")));
+        }
+        String sql = String.format(
+            "CREATE OR REPLACE TABLE %s AS SELECT * FROM read_parquet([%s], hive_partitioning = true)%s",
+            tableName,
+            String.join(", ", quoted),
+            whereClause == null || whereClause.isBlank() ? "" : " WHERE " + whereClause
+        );
+
+        executeLoad(tableName, sql);
+        logger.info("Loaded {} partitioned Parquet files into table {}", filePaths.size(), tableName);
+    }
+
+    /**
+     * Create a table from CSV or Parquet files (local paths or s3:// URIs) of one format
+     */
+    public void createTableFromFiles(String tableName, List<String> filePaths) throws SQLException {
+        executeLoad(tableName, "CREATE TABLE " + tableName + " AS SELECT * FROM " + filesReader(filePaths, false));
+        logger.info("Loaded {} files into table {}", filePaths.size(), tableName);
+    }
+
+    /**
+     * Replace a table with the rows of CSV or Parquet files of one format, read in a single scan.
+     * Entries may be glob patterns (s3://bucket/sales/*.csv); columns are matched by name
+     * across files, and a column missing from a file reads as NULL.
+     *
+     * @return number of rows loaded
+     */
+    public long loadFromFiles(String tableName, List<String> filePaths) throws SQLException {
+        long rows = executeLoad(tableName, "CREATE OR REPLACE TABLE " + tableName + " AS " + selectFromFiles(filePaths));
+        logger.info("Loaded {} rows from {} file entries into table {}", rows, filePaths.size(), tableName);
+        return rows;
+    }
+
+    /**
+     * Query reading all rows of CSV or Parquet files of one format, columns matched by name
+     */
+    public String selectFromFiles(List<String> filePaths) {
+        return "SELECT * FROM " + filesReader(filePaths, false);
+    }
+
+    /**
+     * Query reading the rows of CSV or Parquet files keeping one row per key; files later in the list win
+     */
+    public String selectLatestFromFiles(List<String> filePaths, String keyColumn) {
+        return latestByKey(filePaths, keyColumn);
+    }
+
+    /**
+     * Create a table from files keeping one row per key; files later in the list win
+     */
+    public void createTableFromFiles(String tableName, List<String> filePaths, String keyColumn) throws SQLException {
+        executeLoad(tableName, "CREATE TABLE " + tableName + " AS " + latestByKey(filePaths, keyColumn));
+        logger.info("Loaded {} files into table {} by key {}", filePaths.size(), tableName, keyColumn);
+    }
+
+    /**
+     * Append the rows of CSV or Parquet files to an existing table, matching columns by name
+     *
+     * @return number of rows inserted
+     */
+    public long insertFromFiles(String tableName, List<String> filePaths) throws SQLException {
+        long rows = executeLoad(tableName, "INSERT INTO " + tableName + " BY NAME SELECT * FROM " + filesReader(filePaths, false));
+        logger.info("Inserted {} rows from {} files into table {}", rows, filePaths.size(), tableName);
+        return rows;
+    }
+
+    /**
+     * Upsert the rows of CSV or Parquet files into an existing table by key column, matching columns by name:
+     * rows whose key is present in the files are replaced, all others are kept.
+     * When several files carry the same key, files later in the list win.
+     *
+     * @return number of rows inserted or replaced
+     */
+    public long upsertFromFiles(String tableName, List<String> filePaths, String keyColumn) throws Exception {
+        String staging = quoteIdentifier(tableName.replace('.', '_') + "_staging");
+        String key = quoteIdentifier(keyColumn);
+        long[] rows = new long[1];
+        try (Timing timing = metrics.start(LOAD)) {
+            runInTransaction(() -> {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute("CREATE TEMP TABLE " + staging + " AS " + latestByKey(filePaths, keyColumn));
+                    stmt.execute("DELETE FROM " + tableName + " WHERE " + key + " IN (SELECT " + key + " FROM " + staging + ")");
+                    long replaced = stmt.getUpdateCount();
+                    stmt.execute("INSERT INTO " + tableName + " BY NAME SELECT * FROM " + staging);
+                    rows[0] = stmt.getUpdateCount();
+                    stmt.execute("DROP TABLE " + staging);
+                    logger.info("Upserted {} rows ({} replaced) from {} files into table {}",
+                        rows[0], replaced, filePaths.size(), tableName);
+                }
+            });
+            timing.stop(0, rows[0]);
+        }
+        return rows[0];
+    }
+
+    // Table function reading all files with the reader matching their extension
+    private static String filesReader(List<String> filePaths, boolean withFilename) {
+        if (filePaths.isEmpty()) {
+            throw new IllegalArgumentException("No files to read");
+        }
+        String options = ", union_by_name = true" + (withFilename ? ", filename = true" : "");
+        return filePaths.get(0).endsWith(".parquet")
+            ? "read_parquet(" + fileList(filePaths) + options + ")"
+            : "read_csv_auto(" + fileList(filePaths) + options + ")";
+    }
+
+    // Query over the files keeping the row from the last file in the list for each key
+    private static String latestByKey(List<String> filePaths, String keyColumn) {
+        return "SELECT * EXCLUDE (filename) FROM " + filesReader(filePaths, true) +
+            " QUALIFY row_number() OVER (PARTITION BY " + quoteIdentifier(keyColumn) +
+            " ORDER BY list_position(" + fileList(filePaths) + ", filename) DESC) = 1";
+    }
+
+    private static String fileList(List<String> filePaths) {
+        List<String> quoted = new ArrayList<>(filePaths.size());
+        for (String filePath : filePaths) {
+            quoted.add(quote(filePath.replace("\\", "/")));
+        }
+        return "[" + String.join(", ", quoted) + "]";
+    }
+
+    /**
+     * Check whether a table exists in the database
+     */
+    public boolean tableExists(String tableName) throws SQLException {
+        try (QueryCursor cursor = streamPrepared(
+            "SELECT 1 FROM information_schema.tables WHERE lower(table_name) = lower(?)", tableName)) {
+            return cursor.hasNext();
+        }
+    }
+
+    /**
+     * Run work on the primary connection as one transaction, rolling back if it throws.
+     * Nested calls join the enclosing transaction.
+     */
+    public void runInTransaction(TransactionWork work) throws Exception {
+        if (!connection.getAutoCommit()) {
+            work.run();
+            return;
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Convert a CSV file (local path or s3:// URI) to Parquet
+     */
+    public void convertCsvToParquet(String csvPath, String parquetPath) throws SQLException {
+        exportQueryToParquet(
+            "SELECT * FROM read_csv_auto(" + quote(csvPath.replace("\\", "/")) + ")",
+            parquetPath
+        );
+    }
+
+    /**
+     * Get column names and types of a CSV or Parquet file without loading it
+     */
+    public Map<String, String> describeFile(String filePath) throws SQLException {
+        Map<String, String> schema = new LinkedHashMap<>();
+        List<String[]> rows = executeReadQuery("DESCRIBE SELECT * FROM " + fileReader(filePath));
+        for (String[] row : rows.subList(1, rows.size())) {
+            schema.put(row[0], row[1]);
+        }
+        return schema;
+    }
+
+    /**
+     * Get column types of a Hive-partitioned Parquet file, partition columns included,
+     * keyed by lower-case column name
+     */
+    public Map<String, String> describePartitionedParquet(String filePath) throws SQLException {
+        Map<String, String> types = new HashMap<>();
+        List<String[]> rows = executeReadQuery("DESCRIBE SELECT * FROM read_parquet(" +
+            quote(filePath.replace("\\", "/")) + ", hive_partitioning = true)");
+        for (String[] row : rows.subList(1, rows.size())) {
+            types.put(row[0].toLowerCase(Locale.ROOT), row[1]);
+        }
+        return types;
+    }
+
+    /**
+     * Count rows of a CSV or Parquet file; Parquet counts come from file metadata
+     */
+    public long countRows(String filePath) throws SQLException {
+        ColumnarResult result = executeColumnarQuery("SELECT COUNT(*) FROM " + fileReader(filePath));
+        return ((ColumnarResult.LongColumn) result.getColumn(0)).get(0);
+    }
+
+    // Table function reading the file with the reader matching its extension
+    private static String fileReader(String filePath) {
+        String path = quote(filePath.replace("\\", "/"));
+        return filePath.endsWith(".parquet") ? "read_parquet(" + path + ")" : "read_csv_auto(" + path + ")";
+    }
+
+    /**
+     * Point DuckDB's httpfs S3 settings at MinIO so objects can be read in place,
+     * using HTTP range requests instead of a local copy
+     */
+    public void configureObjectStore(MinioConfig config) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("INSTALL httpfs");
+            stmt.execute("LOAD httpfs");
+            stmt.execute("SET s3_endpoint = " + quote(config.getHostAndPort()));
+            stmt.execute("SET s3_use_ssl = " + config.isSecure());
+            stmt.execute("SET s3_url_style = 'path'");
+            stmt.execute("SET s3_region = " + quote(config.getRegion()));
+            stmt.execute("SET s3_access_key_id = " + quote(config.getAccessKey()));
+            stmt.execute("SET s3_secret_access_key = " + quote(config.getSecretKey()));
+        }
+        this.objectStoreBucket = config.getBucketName();
+        logger.info("DuckDB object store configured for endpoint {}", config.getEndpoint());
+    }
+
+    public boolean isObjectStoreConfigured() {
+        return objectStoreBucket != null;
+    }
+
+    /**
+     * Get the s3:// URI DuckDB uses to read an object in place
+     */
+    public String objectUri(String objectName) {
+        if (objectStoreBucket == null) {
+            throw new IllegalStateException("Object store is not configured");
+        }
+        return "s3://" + objectStoreBucket + "/" + objectName;
+    }
+
+    /**
+     * Load CSV object directly from MinIO into DuckDB, without a temp file
+     */
+    public void loadCsvFromObjectStore(String tableName, String objectName) throws SQLException {
+        loadCsvFromFile(tableName, objectUri(objectName));
+    }
+
+    /**
+     * Load Parquet object directly from MinIO into DuckDB, without a temp file
+     */
+    public void loadParquetFromObjectStore(String tableName, String objectName) throws SQLException {
+        loadParquetFromFile(tableName, objectUri(objectName));
+    }
+
     /**
      * Load CSV data from InputStream
      */
@@ -48,49 +557,313 @@ public class DuckDBService {
         // Save stream to temporary file
         File tempFile = File.createTempFile("duckdb_", ".csv");
         tempFile.deleteOnExit();
+        Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
-        try (FileOutputStream fos = new FileOutputStream(tempFile)) {
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                fos.write(buffer, 0, bytesRead);
-            }
+        loadCsvFromFile(tableName, tempFile.getAbsolutePath());
+    }
+
+    /**
+     * Create a table from column names and DuckDB types, in map iteration order
+     */
+    public void createTable(String tableName, Map<String, String> columns) throws SQLException {
+        List<String> definitions = new ArrayList<>(columns.size());
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            definitions.add(column.getKey() + " " + column.getValue());
         }
+        String sql = String.format("CREATE TABLE %s (%s)", tableName, String.join(", ", definitions));
 
-        loadCsvFromFile(tableName, tempFile.getAbsolutePath());
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+            logger.info("Created table {}", tableName);
+        }
     }
 
     /**
-     * Execute SELECT query and return results as list of maps
+     * Open a native appender on an existing table; the caller must close it
      */
-    public List<String[]> executeQuery(String query) throws SQLException {
-        List<String[]> results = new ArrayList<>();
+    public TableAppender openAppender(String tableName) throws SQLException {
+        return openAppender(tableName, TableAppender.DEFAULT_BATCH_SIZE);
+    }
 
+    /**
+     * Open a native appender that flushes every batchSize rows
+     */
+    public TableAppender openAppender(String tableName, int batchSize) throws SQLException {
+        int columnCount;
         try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+             ResultSet rs = stmt.executeQuery("SELECT * FROM " + tableName + " LIMIT 0")) {
+            columnCount = rs.getMetaData().getColumnCount();
+        }
+
+        // A fresh connection: in 0.9.2 appends on a connection that already ran a streamed query are lost
+        DuckDBConnection appenderConnection = (DuckDBConnection) connection.unwrap(DuckDBConnection.class).duplicate();
+        try {
+            return new TableAppender(appenderConnection, tableName, columnCount, batchSize);
+        } catch (SQLException e) {
+            appenderConnection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Bulk-insert typed rows into an existing table through the native appender.
+     * Much faster than INSERT statements and needs no temp file.
+     *
+     * @return number of rows appended
+     */
+    public long appendRows(String tableName, Iterator<? extends Object[]> rows) throws SQLException {
+        try (Timing timing = metrics.start(APPEND);
+             TableAppender appender = openAppender(tableName)) {
+            long appended = appender.appendRows(rows);
+            timing.stop(0, appended);
+            return appended;
+        }
+    }
+
+    /**
+     * Open a streaming cursor over the query results.
+     * The caller must close the cursor; only one cursor may be open on the connection at a time.
+     */
+    public QueryCursor streamQuery(String query) throws SQLException {
+        Timing timing = metrics.start(QUERY);
+        Statement stmt = connection.createStatement();
+        try {
+            stmt.setFetchSize(fetchSize);
+            return new QueryCursor(stmt, stmt.executeQuery(query)).onClose((rows, failed) -> finishQuery(timing, query, rows, failed));
+        } catch (SQLException e) {
+            stmt.close();
+            timing.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Execute SELECT query and return results as list of maps.
+     * Materializes the whole result; prefer streamQuery for large scans.
+     */
+    public List<String[]> executeQuery(String query) throws SQLException {
+        try (QueryCursor cursor = streamQuery(query)) {
+            return collectRows(cursor);
+        }
+    }
 
-            ResultSetMetaData metadata = rs.getMetaData();
-            int columnCount = metadata.getColumnCount();
+    /**
+     * Execute SELECT query on a pooled connection; safe to call from many threads at once.
+     * Blocks while all pooled connections are busy.
+     */
+    public List<String[]> executeReadQuery(String query) throws SQLException {
+        return pool.withConnection(conn -> {
+            Timing timing = metrics.start(QUERY);
+            Statement stmt = conn.createStatement();
+            stmt.setFetchSize(fetchSize);
+            try (QueryCursor cursor = new QueryCursor(stmt, stmt.executeQuery(query))
+                     .onClose((rows, failed) -> finishQuery(timing, query, rows, failed))) {
+                return collectRows(cursor);
+            } finally {
+                stmt.close();
+                timing.close();
+            }
+        });
+    }
 
-            // Add header row
-            String[] headers = new String[columnCount];
-            for (int i = 1; i <= columnCount; i++) {
-                headers[i - 1] = metadata.getColumnName(i);
+    /**
+     * Open a streaming cursor on a pooled connection, for long-lived callers serving many queries.
+     * The statement is passed to onStatement before the query runs so another thread can cancel it.
+     * Closing the cursor returns the connection to the pool.
+     */
+    public QueryCursor streamReadQuery(String query, Consumer<Statement> onStatement) throws SQLException {
+        Connection conn = pool.acquire();
+        Timing timing = metrics.start(QUERY);
+        Statement stmt = null;
+        try {
+            stmt = conn.createStatement();
+            stmt.setFetchSize(fetchSize);
+            onStatement.accept(stmt);
+            return new QueryCursor(stmt, stmt.executeQuery(query)).onClose((rows, failed) -> {
+                finishQuery(timing, query, rows, failed);
+                pool.release(conn);
+            });
+        } catch (SQLException | RuntimeException e) {
+            if (stmt != null) {
+                stmt.close();
             }
-            results.add(headers);
+            timing.close();
+            pool.release(conn);
+            throw e;
+        }
+    }
 
-            // Add data rows
-            while (rs.next()) {
-                String[] row = new String[columnCount];
-                for (int i = 1; i <= columnCount; i++) {
-                    row[i - 1] = rs.getString(i);
+    /**
+     * Execute SELECT query on a pooled connection and return typed column vectors
+     * (long[], double[], epoch-day int[], dictionary-encoded strings) instead of String rows.
+     * Vectors are filled from Arrow batches when Arrow is usable and every column reads the same
+     * from Arrow as over JDBC, otherwise row by row over JDBC.
+     */
+    public ColumnarResult executeColumnarQuery(String query) throws SQLException {
+        return pool.withConnection(conn -> {
+            try (Timing timing = metrics.start(QUERY);
+                 Statement stmt = conn.createStatement()) {
+                stmt.setFetchSize(fetchSize);
+                ColumnarResult result;
+                try (ResultSet rs = stmt.executeQuery(query)) {
+                    if (isArrowAvailable() && ColumnarResult.isArrowReadable(rs.getMetaData())) {
+                        try (ArrowReader reader = arrowReader(rs)) {
+                            result = ColumnarResult.read(rs.getMetaData(), reader, fetchSize);
+                        }
+                    } else {
+                        result = ColumnarResult.read(rs, fetchSize);
+                    }
                 }
-                results.add(row);
+                finishQuery(timing, query, result.getRowCount(), false);
+                logger.info("Columnar query returned {} rows", result.getRowCount());
+                return result;
+            } catch (IOException e) {
+                throw new SQLException("Failed to read Arrow batches", e);
+            } catch (ArithmeticException e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Stream query results as Arrow record batches over the C data interface, on a pooled connection.
+     * Column buffers are handed over from DuckDB without per-row conversion.
+     *
+     * @return number of rows exported
+     */
+    public long exportQueryToArrow(String query, ArrowBatchConsumer consumer) throws Exception {
+        Connection conn = pool.acquire();
+        try (Timing timing = metrics.start(EXPORT);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query);
+             ArrowReader reader = arrowReader(rs)) {
+            long rows = 0;
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                consumer.accept(root);
+                rows += root.getRowCount();
+            }
+            timing.stop(0, rows);
+            return rows;
+        } finally {
+            pool.release(conn);
+        }
+    }
+
+    /**
+     * Write query results to an Arrow IPC file (random-access format)
+     *
+     * @return number of rows exported
+     */
+    public long exportQueryToArrowFile(String query, String outputPath) throws Exception {
+        Connection conn = pool.acquire();
+        try (Timing timing = metrics.start(EXPORT);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query);
+             ArrowReader reader = arrowReader(rs);
+             FileChannel channel = FileChannel.open(Path.of(outputPath),
+                 StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             ArrowFileWriter writer = new ArrowFileWriter(reader.getVectorSchemaRoot(), null, channel)) {
+            long rows = writeBatches(reader, writer);
+            timing.stop(Files.size(Path.of(outputPath)), rows);
+            logger.info("Query results exported to Arrow file: {} ({} rows)", outputPath, rows);
+            return rows;
+        } finally {
+            pool.release(conn);
+        }
+    }
+
+    /**
+     * Write query results in the Arrow IPC streaming format, e.g. into an object upload.
+     * The output stream is not closed.
+     *
+     * @return number of rows exported
+     */
+    public long exportQueryToArrowStream(String query, OutputStream outputStream) throws Exception {
+        Connection conn = pool.acquire();
+        try (Timing timing = metrics.start(EXPORT);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query);
+             ArrowReader reader = arrowReader(rs);
+             ArrowStreamWriter writer = new ArrowStreamWriter(
+                 reader.getVectorSchemaRoot(), null, Channels.newChannel(outputStream))) {
+            long rows = writeBatches(reader, writer);
+            timing.stop(0, rows);
+            logger.info("Query results exported as Arrow stream ({} rows)", rows);
+            return rows;
+        } finally {
+            pool.release(conn);
+        }
+    }
+
+    private static long writeBatches(ArrowReader reader, ArrowWriter writer) throws IOException {
+        long rows = 0;
+        writer.start();
+        while (reader.loadNextBatch()) {
+            writer.writeBatch();
+            rows += reader.getVectorSchemaRoot().getRowCount();
+        }
+        writer.end();
+        return rows;
+    }
+
+    private ArrowReader arrowReader(ResultSet rs) throws SQLException {
+        return (ArrowReader) rs.unwrap(DuckDBResultSet.class).arrowExportStream(arrowAllocator(), ARROW_BATCH_SIZE);
+    }
+
+    // Created on first use: Arrow needs --add-opens=java.base/java.nio=ALL-UNNAMED on recent JDKs
+    private synchronized BufferAllocator arrowAllocator() {
+        if (arrowAllocator == null) {
+            arrowAllocator = new RootAllocator();
+        }
+        return arrowAllocator;
+    }
+
+    /**
+     * Whether Arrow memory can be allocated in this JVM. Without
+     * --add-opens=java.base/java.nio=ALL-UNNAMED it cannot: columnar queries then fall back
+     * to JDBC, while the exportQueryToArrow* methods fail.
+     */
+    public synchronized boolean isArrowAvailable() {
+        if (arrowAvailable == null) {
+            try {
+                arrowAllocator();
+                arrowAvailable = true;
+            } catch (RuntimeException | LinkageError e) {
+                arrowAvailable = false;
+                logger.warn("Arrow unavailable, columnar queries read through JDBC " +
+                    "(run with --add-opens=java.base/java.nio=ALL-UNNAMED to enable it): {}", e.toString());
+            }
+        }
+        return arrowAvailable;
+    }
+
+    /**
+     * Run a read query asynchronously on a virtual thread.
+     * Concurrency is bounded by the connection pool; excess submissions wait for a free connection.
+     */
+    public CompletableFuture<List<String[]>> submitQuery(String query) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return executeReadQuery(query);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
             }
+        }, queryExecutor);
+    }
+
+    private static List<String[]> collectRows(QueryCursor cursor) {
+        List<String[]> results = new ArrayList<>();
+
+        // Add header row
+        results.add(cursor.getHeaders());
 
-            logger.info("Query executed successfully, returned {} rows", results.size() - 1);
+        // Add data rows
+        while (cursor.hasNext()) {
+            results.add(cursor.next());
         }
 
+        logger.info("Query executed successfully, returned {} rows", cursor.getRowCount());
         return results;
     }
 
@@ -98,16 +871,16 @@ public class DuckDBService {
      * Execute query and export results to CSV file
      */
     public void executeQueryToCSV(String query, String outputPath) throws Exception {
-        List<String[]> results = executeQuery(query);
-
-        try (FileWriter writer = new FileWriter(outputPath);
+        try (QueryCursor cursor = streamQuery(query);
+             Writer writer = new BufferedWriter(new FileWriter(outputPath));
              CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
 
-            for (String[] row : results) {
-                csvPrinter.printRecord((Object[]) row);
+            csvPrinter.printRecord((Object[]) cursor.getHeaders());
+            while (cursor.hasNext()) {
+                csvPrinter.printRecord((Object[]) cursor.next());
             }
 
-            logger.info("Query results exported to: {}", outputPath);
+            logger.info("Query results exported to: {} ({} rows)", outputPath, cursor.getRowCount());
         }
     }
 
@@ -115,16 +888,14 @@ public class DuckDBService {
      * Get table information
      */
     public void showTableInfo(String tableName) throws SQLException {
-        String query = "DESCRIBE " + tableName;
-
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
+        String query = "SELECT column_name, data_type FROM information_schema.columns " +
+            "WHERE lower(table_name) = lower(?) ORDER BY ordinal_position";
 
+        try (QueryCursor cursor = streamPrepared(query, tableName)) {
             System.out.println("\n=== Table Info: " + tableName + " ===");
-            while (rs.next()) {
-                String columnName = rs.getString("column_name");
-                String columnType = rs.getString("column_type");
-                System.out.printf("Column: %s, Type: %s%n", columnName, columnType);
+            while (cursor.hasNext()) {
+                String[] column = cursor.next();
+                System.out.printf("Column: %s, Type: %s%n", column[0], column[1]);
             }
         }
     }
@@ -134,13 +905,10 @@ public class DuckDBService {
      */
     public List<String> listTables() throws SQLException {
         List<String> tables = new ArrayList<>();
-        String query = "SHOW TABLES";
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(query)) {
-
-            while (rs.next()) {
-                tables.add(rs.getString(1));
+        try (QueryCursor cursor = streamPrepared("SHOW TABLES")) {
+            while (cursor.hasNext()) {
+                tables.add(cursor.next()[0]);
             }
         }
 
@@ -151,40 +919,224 @@ public class DuckDBService {
      * Drop table if exists
      */
     public void dropTable(String tableName) throws SQLException {
-        String sql = "DROP TABLE IF EXISTS " + tableName;
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
-            logger.info("Dropped table: {}", tableName);
-        }
+        executePreparedUpdate("DROP TABLE IF EXISTS " + quoteIdentifier(tableName));
+        logger.info("Dropped table: {}", tableName);
     }
 
     /**
      * Execute aggregate query
      */
     public void executeAggregateQuery(String tableName, String groupByColumn, String aggregateColumn) throws SQLException {
+        String group = quoteIdentifier(groupByColumn);
         String query = String.format(
             "SELECT %s, COUNT(*) as count, AVG(%s) as avg_value FROM %s GROUP BY %s ORDER BY count DESC",
-            groupByColumn, aggregateColumn, tableName, groupByColumn
+            group, quoteIdentifier(aggregateColumn), quoteIdentifier(tableName), group
         );
 
-        List<String[]> results = executeQuery(query);
-
-        System.out.println("\n=== Aggregate Query Results ===");
-        for (String[] row : results) {
-            System.out.println(String.join(" | ", row));
+        try (QueryCursor cursor = streamPrepared(query)) {
+            System.out.println("\n=== Aggregate Query Results ===");
+            System.out.println(String.join(" | ", cursor.getHeaders()));
+            while (cursor.hasNext()) {
+                System.out.println(String.join(" | ", cursor.next()));
+            }
         }
     }
 
     /**
-     * Join multiple tables
+     * Join multiple tables, returning a streaming cursor the caller must close
      */
-    public List<String[]> joinTables(String table1, String table2, String joinColumn) throws SQLException {
+    public QueryCursor joinTables(String table1, String table2, String joinColumn) throws SQLException {
+        String left = quoteIdentifier(table1);
+        String right = quoteIdentifier(table2);
+        String column = quoteIdentifier(joinColumn);
         String query = String.format(
             "SELECT * FROM %s JOIN %s ON %s.%s = %s.%s",
-            table1, table2, table1, joinColumn, table2, joinColumn
+            left, right, left, column, right, column
         );
 
-        return executeQuery(query);
+        return streamPrepared(query);
+    }
+
+    /**
+     * Run a query through the prepared statement cache with the values bound to its ? placeholders.
+     * The cursor must be closed before the next query on the primary connection.
+     */
+    public QueryCursor streamPrepared(String sql, Object... params) throws SQLException {
+        Timing timing = metrics.start(QUERY);
+        try {
+            PreparedStatement stmt = prepare(sql, params);
+            return new QueryCursor(stmt, stmt.executeQuery(), false)
+                .onClose((rows, failed) -> finishQuery(timing, sql, params, rows, failed));
+        } catch (SQLException e) {
+            timing.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Run a query through the prepared statement cache and materialize the rows (header row first)
+     */
+    public List<String[]> executePrepared(String sql, Object... params) throws SQLException {
+        try (QueryCursor cursor = streamPrepared(sql, params)) {
+            return collectRows(cursor);
+        }
+    }
+
+    /**
+     * Run a statement through the prepared statement cache with bound values; values are not logged
+     *
+     * @return the update count, or -1 for statements without one
+     */
+    public long executePreparedUpdate(String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = prepare(sql, params);
+        stmt.execute();
+        return stmt.getUpdateCount();
+    }
+
+    private PreparedStatement prepare(String sql, Object... params) throws SQLException {
+        PreparedStatement stmt = statementCache.prepare(sql);
+        stmt.setFetchSize(fetchSize);
+        for (int i = 0; i < params.length; i++) {
+            Object value = params[i];
+            if (value instanceof LocalDate date) {
+                // No LocalDate binding in the driver; DuckDB casts the ISO string to DATE
+                stmt.setString(i + 1, date.toString());
+            } else {
+                stmt.setObject(i + 1, value);
+            }
+        }
+        return stmt;
+    }
+
+    // Run a load statement on the primary connection, recording its duration and row count
+    private long executeLoad(String tableName, String sql) throws SQLException {
+        try (Timing timing = metrics.start(LOAD);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+            long rows = stmt.getUpdateCount();
+            if (rows < 0) {
+                // CREATE TABLE ... AS reports no update count; the count comes from table metadata
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+                    rows = rs.next() ? rs.getLong(1) : 0;
+                }
+            }
+            timing.stop(0, rows);
+            return rows;
+        }
+    }
+
+    private void finishQuery(Timing timing, String query, long rows, boolean failed) {
+        finishQuery(timing, query, new Object[0], rows, failed);
+    }
+
+    // Failed and cancelled queries count as errors and are never profiled
+    private void finishQuery(Timing timing, String query, Object[] params, long rows, boolean failed) {
+        if (failed) {
+            timing.close();
+            return;
+        }
+        long millis = timing.stop(0, rows) / 1_000_000;
+        if (millis >= slowQueryMillis && isReadQuery(query)) {
+            try {
+                queryExecutor.execute(() -> profileSlowQuery(query, params, millis));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Service closing, slow query not profiled");
+            }
+        }
+    }
+
+    // Re-run a slow query under EXPLAIN ANALYZE on a spare pooled connection and keep its profile.
+    // The re-run is cancelled after PROFILE_TIMEOUT_MILLIS, so a profile never holds a connection for long.
+    // EXPLAIN ANALYZE takes no ? parameters, so a parameterized query is PREPAREd on the connection
+    // and its EXECUTE is explained with the bound values written as literals.
+    private void profileSlowQuery(String query, Object[] params, long millis) {
+        for (LakeMetrics.SlowQuery recent : metrics.getSlowQueries()) {
+            if (recent.sql().equals(query)) {
+                return;
+            }
+        }
+        if (pool.getActiveCount() >= pool.getMaxConnections()) {
+            logger.info("Slow query ({} ms), not profiled while the pool is busy: {}", millis, query);
+            return;
+        }
+        List<String> literals = new ArrayList<>(params.length);
+        for (Object param : params) {
+            String literal = sqlLiteral(param);
+            if (literal == null) {
+                logger.info("Slow query ({} ms), not profiled: cannot inline a {} parameter: {}",
+                    millis, param.getClass().getSimpleName(), query);
+                return;
+            }
+            literals.add(literal);
+        }
+        String explain = params.length == 0
+            ? "EXPLAIN ANALYZE " + query
+            : "EXPLAIN ANALYZE EXECUTE " + PROFILE_STATEMENT + "(" + String.join(", ", literals) + ")";
+
+        try {
+            String profile = pool.withConnection(conn -> {
+                StringBuilder plan = new StringBuilder();
+                try (Statement stmt = conn.createStatement()) {
+                    CompletableFuture.delayedExecutor(PROFILE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                        .execute(() -> cancelQuietly(stmt));
+                    if (params.length > 0) {
+                        stmt.execute("PREPARE " + PROFILE_STATEMENT + " AS " + query);
+                    }
+                    try (ResultSet rs = stmt.executeQuery(explain)) {
+                        while (rs.next()) {
+                            plan.append(rs.getString(2)).append('\n');
+                        }
+                    } finally {
+                        if (params.length > 0) {
+                            stmt.execute("DEALLOCATE " + PROFILE_STATEMENT);
+                        }
+                    }
+                }
+                return plan.toString();
+            });
+            metrics.recordSlowQuery(query, millis, profile);
+            logger.warn("Slow query ({} ms): {}\n{}", millis, query, profile);
+        } catch (SQLException e) {
+            // e.g. temp tables of the primary connection are not visible to pooled connections
+            logger.info("Slow query ({} ms), profile unavailable: {} ({})", millis, query, e.getMessage());
+        }
+    }
+
+    // SQL literal for a bound value, matching how prepare() binds it; null when it has no literal form here
+    private static String sqlLiteral(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte || value instanceof BigDecimal) {
+            return value.toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            return Double.isFinite(number) ? value + "::DOUBLE" : null;
+        }
+        if (value instanceof String || value instanceof LocalDate) {
+            return quote(value.toString());
+        }
+        return null;
+    }
+
+    private static void cancelQuietly(Statement stmt) {
+        try {
+            if (!stmt.isClosed()) {
+                stmt.cancel();
+            }
+        } catch (SQLException e) {
+            logger.debug("Profile run already finished: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a statement only reads (SELECT, WITH or FROM-first queries)
+     */
+    public static boolean isReadQuery(String query) {
+        String head = query.stripLeading().toLowerCase();
+        return head.startsWith("select") || head.startsWith("with") || head.startsWith("from");
     }
 
     /**
@@ -201,30 +1153,55 @@ public class DuckDBService {
      * Print query results to console
      */
     public void printQueryResults(String query) throws SQLException {
-        List<String[]> results = executeQuery(query);
-
-        System.out.println("\n=== Query Results ===");
-        System.out.println("Query: " + query);
-        System.out.println();
+        try (QueryCursor cursor = streamQuery(query)) {
+            System.out.println("\n=== Query Results ===");
+            System.out.println("Query: " + query);
+            System.out.println();
 
-        for (int i = 0; i < results.size(); i++) {
-            String[] row = results.get(i);
-            if (i == 0) {
-                System.out.println(String.join(" | ", row));
-                System.out.println("-".repeat(80));
-            } else {
-                System.out.println(String.join(" | ", row));
+            System.out.println(String.join(" | ", cursor.getHeaders()));
+            System.out.println("-".repeat(80));
+            while (cursor.hasNext()) {
+                System.out.println(String.join(" | ", cursor.next()));
             }
+            System.out.println("\nTotal rows: " + cursor.getRowCount());
         }
-        System.out.println("\nTotal rows: " + (results.size() - 1));
+    }
+
+    private static String quote(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    // Quote each part of a (possibly schema-qualified) name so it cannot break out of the identifier
+    private static String quoteIdentifier(String name) {
+        String[] parts = name.split("\\.");
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = "\"" + parts[i].replace("\"", "\"\"") + "\"";
+        }
+        return String.join(".", parts);
     }
 
     /**
      * Close database connection
      */
     public void close() {
+        logger.info("Statement cache: {}", statementCache.getStats());
+        statementCache.close();
+        queryExecutor.shutdown();
+        pool.close();
+        synchronized (this) {
+            if (arrowAllocator != null) {
+                arrowAllocator.close();
+            }
+        }
         try {
             if (connection != null && !connection.isClosed()) {
+                if (!config.isInMemory()) {
+                    // Fold the write-ahead log into the database file so the next open starts clean
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("CHECKPOINT");
+                    }
+                    logger.info("DuckDB database checkpointed to {}", config.getDatabasePath());
+                }
                 connection.close();
                 logger.info("DuckDB connection closed");
             }
@@ -0,0 +1,38 @@
+package com.example.service;
+
+/**
+ * File formats DuckDB can COPY query results into
+ */
+public enum ExportFormat {
+    CSV("FORMAT CSV, HEADER", ".csv", MinioService.CSV_CONTENT_TYPE),
+    PARQUET(
+        "FORMAT PARQUET, COMPRESSION ZSTD, ROW_GROUP_SIZE " + DuckDBService.PARQUET_ROW_GROUP_SIZE,
+        ".parquet",
+        MinioService.PARQUET_CONTENT_TYPE
+    );
+
+    private final String copyOptions;
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String copyOptions, String extension, String contentType) {
+        this.copyOptions = copyOptions;
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Options inside COPY ... TO ... (...)
+     */
+    public String getCopyOptions() {
+        return copyOptions;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
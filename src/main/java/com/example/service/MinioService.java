@@ -1,35 +1,92 @@
 package com.example.service;
 
 import com.example.config.MinioConfig;
+import com.example.metrics.LakeMetrics;
+import com.example.metrics.Timing;
 import io.minio.*;
 import io.minio.errors.*;
+import io.minio.http.HttpUtils;
 import io.minio.messages.Item;
+import io.minio.messages.NotificationRecords;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing MinIO operations - storing and retrieving CSV files
  */
 public class MinioService {
     private static final Logger logger = LoggerFactory.getLogger(MinioService.class);
+    public static final String CSV_CONTENT_TYPE = "text/csv";
+    public static final String PARQUET_CONTENT_TYPE = "application/vnd.apache.parquet";
+    private static final int PIPE_BUFFER_SIZE = 1 << 20;
+    // MinIO's default connect, write and read timeout
+    private static final long HTTP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    // Operation names recorded in LakeMetrics
+    public static final String UPLOAD = "minio.upload";
+    public static final String DOWNLOAD = "minio.download";
+    public static final String LIST = "minio.list";
+    public static final String STAT = "minio.stat";
+    public static final String DELETE = "minio.delete";
+
+    /**
+     * Notified after an object is written or deleted through this service
+     */
+    @FunctionalInterface
+    public interface ObjectChangeListener {
+        void objectChanged(String objectName);
+    }
+
     private final MinioClient minioClient;
+    private final MinioAsyncClient asyncClient;
+    private final ParallelUploader parallelUploader;
+    private final ParallelDownloader parallelDownloader;
     private final String bucketName;
+    private final List<ObjectChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private final LakeMetrics metrics = LakeMetrics.global();
+    private AsyncMinioService asyncService;
+    private volatile CsvCompression csvCompression = CsvCompression.NONE;
 
     public MinioService(MinioConfig config) {
         this.bucketName = config.getBucketName();
+        OkHttpClient httpClient = newHttpClient(config);
         this.minioClient = MinioClient.builder()
             .endpoint(config.getEndpoint())
             .credentials(config.getAccessKey(), config.getSecretKey())
+            .region(config.getRegion())
+            .httpClient(httpClient)
             .build();
-
+        this.asyncClient = MinioAsyncClient.builder()
+            .endpoint(config.getEndpoint())
+            .credentials(config.getAccessKey(), config.getSecretKey())
+            .region(config.getRegion())
+            .httpClient(httpClient)
+            .build();
+        this.parallelUploader = new ParallelUploader(
+            new MultipartClient(asyncClient), bucketName, config.getPartSize(), config.getTransferParallelism()
+        );
+        this.parallelDownloader = new ParallelDownloader(
+            minioClient, bucketName, config.getPartSize(), config.getTransferParallelism()
+        );
         try {
             createBucketIfNotExists();
         } catch (Exception e) {
@@ -38,6 +95,82 @@ public class MinioService {
         }
     }
 
+    // One HTTP client for all requests to the single MinIO host. OkHttp runs at most 5 requests
+    // per host by default, which would throttle the async bound and the parallel transfers and
+    // count their queueing as operation latency.
+    private static OkHttpClient newHttpClient(MinioConfig config) {
+        int maxRequests = AsyncMinioService.DEFAULT_MAX_IN_FLIGHT + 2 * config.getTransferParallelism();
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequests);
+        return HttpUtils.newDefaultHttpClient(HTTP_TIMEOUT_MILLIS, HTTP_TIMEOUT_MILLIS, HTTP_TIMEOUT_MILLIS)
+            .newBuilder()
+            .dispatcher(dispatcher)
+            .connectionPool(new ConnectionPool(maxRequests, 5, TimeUnit.MINUTES))
+            .build();
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    /**
+     * Part size of multipart uploads and ranged downloads; objects above it are worth transferring in ranges
+     */
+    public long getPartSize() {
+        return parallelUploader.getPartSize();
+    }
+
+    /**
+     * Non-blocking variant of this service's object operations
+     */
+    public synchronized AsyncMinioService async() {
+        if (asyncService == null) {
+            asyncService = new AsyncMinioService(this, asyncClient, AsyncMinioService.DEFAULT_MAX_IN_FLIGHT);
+        }
+        return asyncService;
+    }
+
+    public CsvCompression getCsvCompression() {
+        return csvCompression;
+    }
+
+    /**
+     * Set the compression applied by uploadCsvFile and uploadCsvContent
+     */
+    public void setCsvCompression(CsvCompression csvCompression) {
+        this.csvCompression = csvCompression;
+    }
+
+    /**
+     * Name under which a CSV object is stored with the current compression
+     * (sales/sales_data.csv -> sales/sales_data.csv.gz)
+     */
+    public String csvObjectName(String objectName) {
+        return csvCompression.objectName(objectName);
+    }
+
+    public void addObjectChangeListener(ObjectChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeObjectChangeListener(ObjectChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Tell listeners an object changed; also used for objects DuckDB writes to the bucket itself
+     */
+    public void notifyObjectChanged(String objectName) {
+        for (ObjectChangeListener listener : changeListeners) {
+            try {
+                listener.objectChanged(objectName);
+            } catch (RuntimeException e) {
+                logger.warn("Object change listener failed for {}", objectName, e);
+            }
+        }
+    }
+
     /**
      * Create bucket if it doesn't exist
      */
@@ -57,99 +190,344 @@ public class MinioService {
     }
 
     /**
-     * Upload CSV file to MinIO
+     * Upload CSV file to MinIO, compressed with the current CSV compression
+     *
+     * @return the stored object name, carrying the compression extension
      */
-    public void uploadCsvFile(String objectName, File file) throws Exception {
-        minioClient.uploadObject(
-            UploadObjectArgs.builder()
-                .bucket(bucketName)
-                .object(objectName)
-                .filename(file.getAbsolutePath())
-                .contentType("text/csv")
-                .build()
-        );
-        logger.info("Uploaded file: {} to bucket: {}", objectName, bucketName);
+    public String uploadCsvFile(String objectName, File file) throws Exception {
+        CsvCompression compression = csvCompression;
+        String storedName = compression.objectName(objectName);
+        if (compression == CsvCompression.NONE) {
+            uploadFile(storedName, file, CSV_CONTENT_TYPE);
+            return storedName;
+        }
+
+        try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+            if (file.length() > parallelUploader.getPartSize()) {
+                uploadCompressedStream(storedName, is, compression);
+            } else {
+                putCompressed(storedName, is.readAllBytes(), compression);
+            }
+        }
+        return storedName;
     }
 
     /**
-     * Upload CSV content from string
+     * Upload Parquet file to MinIO
      */
-    public void uploadCsvContent(String objectName, String csvContent) throws Exception {
-        ByteArrayInputStream bais = new ByteArrayInputStream(csvContent.getBytes());
-        minioClient.putObject(
-            PutObjectArgs.builder()
-                .bucket(bucketName)
-                .object(objectName)
-                .stream(bais, csvContent.getBytes().length, -1)
-                .contentType("text/csv")
-                .build()
-        );
-        logger.info("Uploaded CSV content as: {}", objectName);
+    public void uploadParquetFile(String objectName, File file) throws Exception {
+        uploadFile(objectName, file, PARQUET_CONTENT_TYPE);
+    }
+
+    /**
+     * Upload Parquet file to MinIO with user metadata (e.g. the ETag of the source it was converted from)
+     */
+    public void uploadParquetFile(String objectName, File file, Map<String, String> userMetadata) throws Exception {
+        uploadFile(objectName, file, PARQUET_CONTENT_TYPE, userMetadata);
+    }
+
+    /**
+     * Upload local file to MinIO with the given content type.
+     * Files larger than one part are sent as a parallel multipart upload.
+     */
+    public void uploadFile(String objectName, File file, String contentType) throws Exception {
+        uploadFile(objectName, file, contentType, Map.of());
+    }
+
+    /**
+     * Upload local file to MinIO with the given content type and user metadata
+     */
+    public void uploadFile(String objectName, File file, String contentType,
+                           Map<String, String> userMetadata) throws Exception {
+        try (Timing timing = metrics.start(UPLOAD)) {
+            if (file.length() > parallelUploader.getPartSize()) {
+                try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+                    parallelUploader.upload(objectName, is, contentType, null, userMetadata);
+                }
+            } else {
+                minioClient.uploadObject(
+                    UploadObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .filename(file.getAbsolutePath())
+                        .contentType(contentType)
+                        .userMetadata(userMetadata)
+                        .build()
+                );
+                logger.info("Uploaded file: {} to bucket: {}", objectName, bucketName);
+            }
+            timing.stop(file.length(), 0);
+        }
+        notifyObjectChanged(objectName);
+    }
+
+    /**
+     * Upload a stream of unknown length as a parallel multipart upload.
+     * Only parallelism x partSize bytes are buffered at any time; the stream is not closed.
+     */
+    public long uploadStream(String objectName, InputStream inputStream, String contentType) throws Exception {
+        long bytes;
+        try (Timing timing = metrics.start(UPLOAD)) {
+            bytes = parallelUploader.upload(objectName, inputStream, contentType);
+            timing.stop(bytes, 0);
+        }
+        notifyObjectChanged(objectName);
+        return bytes;
+    }
+
+    /**
+     * Upload CSV content from string, compressed with the current CSV compression
+     *
+     * @return the stored object name, carrying the compression extension
+     */
+    public String uploadCsvContent(String objectName, String csvContent) throws Exception {
+        CsvCompression compression = csvCompression;
+        String storedName = compression.objectName(objectName);
+        putCompressed(storedName, csvContent.getBytes(StandardCharsets.UTF_8), compression);
+        logger.info("Uploaded CSV content as: {}", storedName);
+        return storedName;
+    }
+
+    // Compress a small CSV in memory and store it with one PUT
+    private void putCompressed(String objectName, byte[] csv, CsvCompression compression) throws Exception {
+        byte[] bytes = csv;
+        if (compression != CsvCompression.NONE) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(csv.length / 4, 64));
+            try (OutputStream out = compression.compress(buffer)) {
+                out.write(csv);
+            }
+            bytes = buffer.toByteArray();
+        }
+
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+            .bucket(bucketName)
+            .object(objectName)
+            .stream(new ByteArrayInputStream(bytes), bytes.length, -1)
+            .contentType(CSV_CONTENT_TYPE);
+        if (compression != CsvCompression.NONE) {
+            args.headers(Map.of("Content-Encoding", compression.getContentEncoding()));
+        }
+        try (Timing timing = metrics.start(UPLOAD)) {
+            minioClient.putObject(args.build());
+            timing.stop(bytes.length, 0);
+        }
+        if (compression != CsvCompression.NONE) {
+            logger.debug("Compressed {} from {} to {} bytes", objectName, csv.length, bytes.length);
+        }
+        notifyObjectChanged(objectName);
+    }
+
+    // Compress a large CSV on a virtual thread, piping the output into a parallel multipart upload.
+    // A failed compressor leaves the pipe unclosed, so the upload fails instead of storing a truncated object.
+    private void uploadCompressedStream(String objectName, InputStream csv, CsvCompression compression) throws Exception {
+        PipedInputStream pipe = new PipedInputStream(PIPE_BUFFER_SIZE);
+        PipedOutputStream pipeOut = new PipedOutputStream(pipe);
+        FutureTask<Void> compressor = new FutureTask<>(() -> {
+            OutputStream out = compression.compress(pipeOut);
+            csv.transferTo(out);
+            out.close();
+            return null;
+        });
+        Thread.ofVirtual().name("csv-compress").start(compressor);
+
+        long bytes;
+        try (Timing timing = metrics.start(UPLOAD); pipe) {
+            bytes = parallelUploader.upload(objectName, pipe, CSV_CONTENT_TYPE, compression.getContentEncoding());
+            compressor.get();
+            timing.stop(bytes, 0);
+        } catch (Exception e) {
+            compressor.cancel(true);
+            if (compressor.isDone() && !compressor.isCancelled()) {
+                try {
+                    compressor.get();
+                } catch (ExecutionException failure) {
+                    throw failure.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            throw e;
+        }
+        logger.info("Uploaded {} compressed with {} ({} bytes)", objectName, compression, bytes);
+        notifyObjectChanged(objectName);
     }
 
     /**
      * Download CSV file from MinIO
      */
     public File downloadCsvFile(String objectName, String downloadPath) throws Exception {
-        minioClient.downloadObject(
-            DownloadObjectArgs.builder()
-                .bucket(bucketName)
-                .object(objectName)
-                .filename(downloadPath)
-                .build()
-        );
+        return downloadFile(objectName, downloadPath);
+    }
+
+    /**
+     * Download any object from MinIO to a local path, replacing an existing file
+     */
+    public File downloadFile(String objectName, String downloadPath) throws Exception {
+        File file = new File(downloadPath);
+        try (Timing timing = metrics.start(DOWNLOAD)) {
+            minioClient.downloadObject(
+                DownloadObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .filename(downloadPath)
+                    .overwrite(true)
+                    .build()
+            );
+            timing.stop(file.length(), 0);
+        }
         logger.info("Downloaded file: {} to: {}", objectName, downloadPath);
-        return new File(downloadPath);
+        return file;
     }
 
     /**
-     * Get CSV file as InputStream
+     * Download an object as parallel byte ranges into a preallocated local file
+     */
+    public TransferStats downloadParallel(String objectName, Path target) throws Exception {
+        try (Timing timing = metrics.start(DOWNLOAD)) {
+            TransferStats stats = parallelDownloader.download(objectName, target);
+            timing.stop(stats.bytes(), 0);
+            return stats;
+        }
+    }
+
+    /**
+     * Get CSV file as InputStream, decompressing .csv.gz and .csv.zst objects while reading
      */
     public InputStream getCsvFileStream(String objectName) throws Exception {
-        return minioClient.getObject(
+        InputStream in = minioClient.getObject(
             GetObjectArgs.builder()
                 .bucket(bucketName)
                 .object(objectName)
                 .build()
         );
+        try {
+            return CsvCompression.fromObjectName(objectName).decompress(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
     }
 
     /**
      * List all CSV files in the bucket
      */
     public List<String> listCsvFiles() {
+        return listCsvFiles("");
+    }
+
+    /**
+     * List CSV files under a prefix (e.g. "sales/"), compressed ones included
+     */
+    public List<String> listCsvFiles(String prefix) {
+        return listObjects(prefix, ".csv");
+    }
+
+    /**
+     * List object names under a prefix that end with the given suffix;
+     * a ".csv" suffix also matches compressed CSV objects
+     */
+    public List<String> listObjects(String prefix, String suffix) {
         List<String> files = new ArrayList<>();
         try {
+            for (ObjectInfo info : listObjectInfo(prefix)) {
+                if (CsvCompression.matches(info.objectName(), suffix)) {
+                    files.add(info.objectName());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error listing objects under prefix: {}", prefix, e);
+        }
+        return files;
+    }
+
+    /**
+     * List key, size, ETag and modification time of every object under a prefix
+     */
+    public List<ObjectInfo> listObjectInfo(String prefix) throws Exception {
+        List<ObjectInfo> objects = new ArrayList<>();
+        try (Timing timing = metrics.start(LIST)) {
             Iterable<Result<Item>> results = minioClient.listObjects(
                 ListObjectsArgs.builder()
                     .bucket(bucketName)
+                    .prefix(prefix)
+                    .recursive(true)
                     .build()
             );
 
             for (Result<Item> result : results) {
                 Item item = result.get();
-                String objectName = item.objectName();
-                if (objectName.endsWith(".csv")) {
-                    files.add(objectName);
+                if (!item.isDir()) {
+                    objects.add(new ObjectInfo(item.objectName(), item.size(), item.etag(), item.lastModified()));
                 }
             }
-        } catch (Exception e) {
-            logger.error("Error listing CSV files", e);
+            timing.stop(0, objects.size());
         }
-        return files;
+        return objects;
     }
 
     /**
-     * Delete CSV file from MinIO
+     * Get size, ETag and modification time of one object
      */
-    public void deleteCsvFile(String objectName) throws Exception {
-        minioClient.removeObject(
-            RemoveObjectArgs.builder()
+    public ObjectInfo statObject(String objectName) throws Exception {
+        StatObjectResponse stat;
+        try (Timing timing = metrics.start(STAT)) {
+            stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build()
+            );
+            timing.stop(0, 0);
+        }
+        return new ObjectInfo(objectName, stat.size(), stat.etag(), stat.lastModified());
+    }
+
+    /**
+     * Get the user metadata of one object, keyed by lower-case name without the x-amz-meta- prefix
+     */
+    public Map<String, String> getUserMetadata(String objectName) throws Exception {
+        StatObjectResponse stat;
+        try (Timing timing = metrics.start(STAT)) {
+            stat = minioClient.statObject(
+                StatObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build()
+            );
+            timing.stop(0, 0);
+        }
+        Map<String, String> metadata = new HashMap<>();
+        stat.userMetadata().forEach((key, value) -> metadata.put(key.toLowerCase(Locale.ROOT), value));
+        return metadata;
+    }
+
+    /**
+     * Subscribe to object created and removed notifications for keys under a prefix (MinIO extension).
+     * The iterator blocks until the next notification; close it to unsubscribe.
+     */
+    public CloseableIterator<Result<NotificationRecords>> listenObjectEvents(String prefix) throws Exception {
+        return minioClient.listenBucketNotification(
+            ListenBucketNotificationArgs.builder()
                 .bucket(bucketName)
-                .object(objectName)
+                .prefix(prefix)
+                .events(new String[]{"s3:ObjectCreated:*", "s3:ObjectRemoved:*"})
                 .build()
         );
+    }
+
+    /**
+     * Delete CSV file from MinIO
+     */
+    public void deleteCsvFile(String objectName) throws Exception {
+        try (Timing timing = metrics.start(DELETE)) {
+            minioClient.removeObject(
+                RemoveObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .build()
+            );
+            timing.stop(0, 0);
+        }
         logger.info("Deleted file: {}", objectName);
+        notifyObjectChanged(objectName);
     }
 
     /**
@@ -169,6 +547,19 @@ public class MinioService {
         }
     }
 
+    /**
+     * Release upload and download worker threads
+     */
+    public void close() {
+        parallelUploader.close();
+        parallelDownloader.close();
+        synchronized (this) {
+            if (asyncService != null) {
+                asyncService.close();
+            }
+        }
+    }
+
     /**
      * Get presigned URL for temporary access
      */
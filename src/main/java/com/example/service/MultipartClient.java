@@ -0,0 +1,64 @@
+package com.example.service;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import io.minio.MinioAsyncClient;
+import io.minio.messages.Part;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * MinIO async client exposing the low-level multipart calls
+ * (create, upload part, complete, abort) that the SDK keeps protected.
+ * Each call waits for the SDK's async request, so callers control concurrency with their own threads.
+ */
+class MultipartClient extends MinioAsyncClient {
+
+    MultipartClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    /**
+     * Start a multipart upload and return its upload id; contentEncoding may be null.
+     * User metadata keys are stored as x-amz-meta-{key} headers.
+     */
+    String createUpload(String bucketName, String objectName, String contentType, String contentEncoding,
+                        Map<String, String> userMetadata) throws Exception {
+        Multimap<String, String> headers = HashMultimap.create();
+        headers.put("Content-Type", contentType);
+        if (contentEncoding != null) {
+            headers.put("Content-Encoding", contentEncoding);
+        }
+        userMetadata.forEach((key, value) -> headers.put("x-amz-meta-" + key, value));
+        return await(createMultipartUploadAsync(bucketName, null, objectName, headers, null)).result().uploadId();
+    }
+
+    /**
+     * Upload one part from a buffer and return its ETag
+     */
+    String uploadPart(String bucketName, String objectName, String uploadId,
+                      int partNumber, byte[] data, int length) throws Exception {
+        return await(uploadPartAsync(bucketName, null, objectName, data, length, uploadId, partNumber, null, null)).etag();
+    }
+
+    void completeUpload(String bucketName, String objectName, String uploadId, Part[] parts) throws Exception {
+        await(completeMultipartUploadAsync(bucketName, null, objectName, uploadId, parts, null, null));
+    }
+
+    void abortUpload(String bucketName, String objectName, String uploadId) throws Exception {
+        await(abortMultipartUploadAsync(bucketName, null, objectName, uploadId, null, null));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+}
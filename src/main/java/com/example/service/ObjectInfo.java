@@ -0,0 +1,14 @@
+package com.example.service;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Listing/stat metadata for a single lake object
+ */
+public record ObjectInfo(String objectName, long size, String etag, ZonedDateTime lastModified) {
+
+    public ObjectInfo {
+        // S3 returns quoted ETags; keep them bare so they compare across list and stat calls
+        etag = etag == null ? null : etag.replace("\"", "");
+    }
+}
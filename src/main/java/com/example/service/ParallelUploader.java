@@ -0,0 +1,190 @@
+package com.example.service;
+
+import io.minio.messages.Part;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Multipart uploader that sends fixed-size parts in parallel.
+ * At most {@code parallelism} part buffers exist at once, so memory use is
+ * bounded by parallelism x partSize regardless of object size.
+ */
+public class ParallelUploader implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelUploader.class);
+
+    // S3 rejects non-final parts smaller than 5 MiB
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_PART_RETRIES = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 200;
+
+    private final MultipartClient client;
+    private final String bucketName;
+    private final int partSize;
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    ParallelUploader(MultipartClient client, String bucketName, long partSize, int parallelism) {
+        if (partSize < MIN_PART_SIZE || partSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Part size must be between 5 MiB and 2 GiB: " + partSize);
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Upload parallelism must be positive: " + parallelism);
+        }
+        this.client = client;
+        this.bucketName = bucketName;
+        this.partSize = (int) partSize;
+        this.parallelism = parallelism;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "minio-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public long getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Upload the stream as a multipart object. The stream is read sequentially,
+     * one part at a time, and is not closed by this method.
+     *
+     * @return total bytes uploaded
+     */
+    public long upload(String objectName, InputStream inputStream, String contentType) throws Exception {
+        return upload(objectName, inputStream, contentType, null);
+    }
+
+    /**
+     * Upload the stream as a multipart object stored with the given Content-Encoding (null for none).
+     * A part that fails after its retries stops reading and aborts the upload.
+     *
+     * @return total bytes uploaded
+     */
+    public long upload(String objectName, InputStream inputStream, String contentType,
+                       String contentEncoding) throws Exception {
+        return upload(objectName, inputStream, contentType, contentEncoding, Map.of());
+    }
+
+    /**
+     * Upload the stream as a multipart object with a Content-Encoding (null for none) and user metadata
+     *
+     * @return total bytes uploaded
+     */
+    public long upload(String objectName, InputStream inputStream, String contentType,
+                       String contentEncoding, Map<String, String> userMetadata) throws Exception {
+        String uploadId = client.createUpload(bucketName, objectName, contentType, contentEncoding, userMetadata);
+        Semaphore buffers = new Semaphore(parallelism);
+        List<Future<Part>> pending = new ArrayList<>();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        long totalBytes = 0;
+
+        try {
+            int partNumber = 1;
+            while (true) {
+                buffers.acquire();
+                // A failed part releases its buffer, so a blocked reader wakes up and stops here
+                if (failure.get() != null) {
+                    buffers.release();
+                    throw failure.get();
+                }
+                byte[] data = new byte[partSize];
+                int length = readFully(inputStream, data);
+                if (length == 0 && partNumber > 1) {
+                    buffers.release();
+                    break;
+                }
+
+                int number = partNumber++;
+                pending.add(executor.submit(() -> {
+                    try {
+                        return new Part(number, uploadPartWithRetry(objectName, uploadId, number, data, length));
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        buffers.release();
+                    }
+                }));
+                totalBytes += length;
+                if (length < partSize) {
+                    break;
+                }
+            }
+
+            List<Part> parts = new ArrayList<>(pending.size());
+            for (Future<Part> future : pending) {
+                parts.add(future.get());
+            }
+            parts.sort(Comparator.comparingInt(Part::partNumber));
+            client.completeUpload(bucketName, objectName, uploadId, parts.toArray(new Part[0]));
+        } catch (Exception e) {
+            pending.forEach(future -> future.cancel(true));
+            abortQuietly(objectName, uploadId);
+            throw unwrap(e);
+        }
+
+        logger.info("Uploaded {} ({} bytes in {} parts)", objectName, totalBytes, pending.size());
+        return totalBytes;
+    }
+
+    private String uploadPartWithRetry(String objectName, String uploadId,
+                                       int partNumber, byte[] data, int length) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return client.uploadPart(bucketName, objectName, uploadId, partNumber, data, length);
+            } catch (Exception e) {
+                if (attempt >= MAX_PART_RETRIES || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                logger.warn("Retrying part {} of {} (attempt {}): {}", partNumber, objectName, attempt, e.getMessage());
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            }
+        }
+    }
+
+    private static int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = inputStream.read(buffer, total, buffer.length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private void abortQuietly(String objectName, String uploadId) {
+        try {
+            client.abortUpload(bucketName, objectName, uploadId);
+        } catch (Exception e) {
+            logger.warn("Failed to abort multipart upload {} for {}", uploadId, objectName, e);
+        }
+    }
+
+    private static Exception unwrap(Exception e) {
+        if (e instanceof ExecutionException && e.getCause() instanceof Exception cause) {
+            return cause;
+        }
+        return e;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,339 @@
+package com.example.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prunes Hive-style partitioned object keys (e.g. sales/order_date=2024-01-15/data_0.parquet)
+ * using the partition-column predicates of a WHERE clause.
+ *
+ * Only top-level AND-ed comparisons of the form {@code col <op> literal},
+ * {@code col BETWEEN a AND b} and {@code col IN (...)} are used; anything else is
+ * ignored, and a clause containing OR is not pruned at all. Pruning is therefore
+ * conservative: a key is dropped only when a predicate provably rejects it.
+ *
+ * Unquoted numeric literals, and literals on columns known to be numeric, are compared as numbers.
+ * Quoted literals are compared as strings, except that when the column type is unknown and both
+ * sides look numeric a key is kept if either reading matches: DuckDB reads integer partition
+ * values as BIGINT, so {@code month < '10'} matches month=9 there although {@code '9' > '10'} as strings.
+ */
+public final class PartitionPruner {
+
+    /**
+     * How partition values are compared with a predicate's literals
+     */
+    public enum Comparison {
+        STRING,
+        NUMERIC,
+        // Column type unknown: keep the key if it matches as a string or, when numeric, as a number
+        EITHER
+    }
+
+    /**
+     * Comparison on a single partition column
+     */
+    public record Predicate(String column, String operator, List<String> values, Comparison comparison) {
+
+        boolean test(String actual) {
+            boolean numeric = isNumber(actual) && values.stream().allMatch(PartitionPruner::isNumber);
+            return switch (comparison) {
+                case STRING -> test(actual, String::compareTo);
+                // A value that is not a number is not compared as one by the query either; keep the key
+                case NUMERIC -> !numeric || test(actual, PartitionPruner::compareNumbers);
+                case EITHER -> test(actual, String::compareTo) || (numeric && test(actual, PartitionPruner::compareNumbers));
+            };
+        }
+
+        private boolean test(String actual, Comparator<String> order) {
+            return switch (operator) {
+                case "=" -> order.compare(actual, values.get(0)) == 0;
+                case "!=", "<>" -> order.compare(actual, values.get(0)) != 0;
+                case "<" -> order.compare(actual, values.get(0)) < 0;
+                case "<=" -> order.compare(actual, values.get(0)) <= 0;
+                case ">" -> order.compare(actual, values.get(0)) > 0;
+                case ">=" -> order.compare(actual, values.get(0)) >= 0;
+                case "BETWEEN" -> order.compare(actual, values.get(0)) >= 0 && order.compare(actual, values.get(1)) <= 0;
+                case "IN" -> values.stream().anyMatch(value -> order.compare(actual, value) == 0);
+                default -> true;
+            };
+        }
+
+        // Narrow the comparison once the column's DuckDB type is known
+        Predicate withColumnType(String type) {
+            if (isNumericType(type)) {
+                return new Predicate(column, operator, values, Comparison.NUMERIC);
+            }
+            if ("VARCHAR".equalsIgnoreCase(type)) {
+                // Quoted literals compare as strings; unquoted numbers may still be cast either way
+                Comparison narrowed = comparison == Comparison.NUMERIC ? Comparison.EITHER : Comparison.STRING;
+                return new Predicate(column, operator, values, narrowed);
+            }
+            return this;
+        }
+    }
+
+    private PartitionPruner() {
+    }
+
+    /**
+     * Keep only the keys whose partition values can satisfy the WHERE clause
+     */
+    public static List<String> prune(List<String> objectKeys, String whereClause) {
+        return prune(objectKeys, whereClause, Map.of());
+    }
+
+    /**
+     * Keep only the keys whose partition values can satisfy the WHERE clause, comparing
+     * each column as its DuckDB type (lower-case column name to type) when known
+     */
+    public static List<String> prune(List<String> objectKeys, String whereClause, Map<String, String> columnTypes) {
+        List<Predicate> predicates = new ArrayList<>();
+        for (Predicate predicate : parse(whereClause)) {
+            String type = columnTypes.get(predicate.column());
+            predicates.add(type == null ? predicate : predicate.withColumnType(type));
+        }
+        if (predicates.isEmpty()) {
+            return objectKeys;
+        }
+
+        List<String> matching = new ArrayList<>();
+        for (String key : objectKeys) {
+            if (matches(partitionValues(key), predicates)) {
+                matching.add(key);
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Extract name=value path segments from an object key
+     */
+    public static Map<String, String> partitionValues(String objectKey) {
+        Map<String, String> values = new HashMap<>();
+        String[] segments = objectKey.split("/");
+        // The last segment is the file name, not a partition directory
+        for (int i = 0; i < segments.length - 1; i++) {
+            int eq = segments[i].indexOf('=');
+            if (eq > 0) {
+                values.put(segments[i].substring(0, eq).toLowerCase(Locale.ROOT), segments[i].substring(eq + 1));
+            }
+        }
+        return values;
+    }
+
+    private static boolean matches(Map<String, String> partitions, List<Predicate> predicates) {
+        for (Predicate predicate : predicates) {
+            String actual = partitions.get(predicate.column());
+            if (actual != null && !predicate.test(actual)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parse the prunable predicates out of a WHERE clause (without the WHERE keyword)
+     */
+    public static List<Predicate> parse(String whereClause) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (whereClause == null || whereClause.isBlank()) {
+            return predicates;
+        }
+
+        List<String> tokens = tokenize(whereClause);
+        for (String token : tokens) {
+            if (token.equalsIgnoreCase("OR") || token.equalsIgnoreCase("NOT")) {
+                return new ArrayList<>();
+            }
+        }
+
+        int i = 0;
+        while (i < tokens.size()) {
+            int end = nextConjunct(tokens, i);
+            Predicate predicate = parseConjunct(tokens.subList(i, end));
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+            i = end + 1;
+        }
+        return predicates;
+    }
+
+    // Index of the top-level AND ending the conjunct starting at start (BETWEEN's AND excluded)
+    private static int nextConjunct(List<String> tokens, int start) {
+        int depth = 0;
+        boolean inBetween = false;
+        for (int i = start; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token.equals("(")) {
+                depth++;
+            } else if (token.equals(")")) {
+                depth--;
+            } else if (depth == 0 && token.equalsIgnoreCase("BETWEEN")) {
+                inBetween = true;
+            } else if (depth == 0 && token.equalsIgnoreCase("AND")) {
+                if (inBetween) {
+                    inBetween = false;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return tokens.size();
+    }
+
+    private static Predicate parseConjunct(List<String> tokens) {
+        if (tokens.size() < 3 || !isIdentifier(tokens.get(0))) {
+            return null;
+        }
+        String column = unquoteIdentifier(tokens.get(0));
+        String operator = tokens.get(1).toUpperCase(Locale.ROOT);
+        List<String> rest = stripTypeKeywords(tokens.subList(2, tokens.size()));
+
+        switch (operator) {
+            case "=", "!=", "<>", "<", "<=", ">", ">=" -> {
+                if (rest.size() == 1 && isLiteral(rest.get(0))) {
+                    return new Predicate(column, operator, List.of(literal(rest.get(0))), comparison(rest.subList(0, 1)));
+                }
+            }
+            case "BETWEEN" -> {
+                if (rest.size() == 3 && isLiteral(rest.get(0)) && rest.get(1).equalsIgnoreCase("AND")
+                        && isLiteral(rest.get(2))) {
+                    return new Predicate(column, operator, List.of(literal(rest.get(0)), literal(rest.get(2))),
+                        comparison(List.of(rest.get(0), rest.get(2))));
+                }
+            }
+            case "IN" -> {
+                if (rest.size() >= 3 && rest.get(0).equals("(") && rest.get(rest.size() - 1).equals(")")) {
+                    List<String> literals = new ArrayList<>();
+                    for (String token : rest.subList(1, rest.size() - 1)) {
+                        if (token.equals(",")) {
+                            continue;
+                        }
+                        if (!isLiteral(token)) {
+                            return null;
+                        }
+                        literals.add(token);
+                    }
+                    return new Predicate(column, operator, literals.stream().map(PartitionPruner::literal).toList(),
+                        comparison(literals));
+                }
+            }
+            default -> {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Drop DATE/TIMESTAMP prefixes so DATE '2024-01-15' is read as its string literal
+    private static List<String> stripTypeKeywords(List<String> tokens) {
+        List<String> result = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            boolean typeKeyword = token.equalsIgnoreCase("DATE") || token.equalsIgnoreCase("TIMESTAMP");
+            if (typeKeyword && i + 1 < tokens.size() && tokens.get(i + 1).startsWith("'")) {
+                continue;
+            }
+            result.add(token);
+        }
+        return result;
+    }
+
+    // Unquoted numbers compare as numbers; anything quoted depends on the column type
+    private static Comparison comparison(List<String> literalTokens) {
+        return literalTokens.stream().allMatch(PartitionPruner::isNumber) ? Comparison.NUMERIC : Comparison.EITHER;
+    }
+
+    static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'' || c == '"') {
+                int end = i + 1;
+                while (end < sql.length()) {
+                    if (sql.charAt(end) == c) {
+                        if (end + 1 < sql.length() && sql.charAt(end + 1) == c) {
+                            end += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    end++;
+                }
+                tokens.add(sql.substring(i, Math.min(end + 1, sql.length())));
+                i = end + 1;
+            } else if (c == '<' || c == '>' || c == '!' || c == '=') {
+                int end = i + 1;
+                if (end < sql.length() && (sql.charAt(end) == '=' || (c == '<' && sql.charAt(end) == '>'))) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end));
+                i = end;
+            } else if (c == '(' || c == ')' || c == ',') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int end = i;
+                while (end < sql.length() && !Character.isWhitespace(sql.charAt(end))
+                        && "'\"<>!=(),".indexOf(sql.charAt(end)) < 0) {
+                    end++;
+                }
+                tokens.add(sql.substring(i, end));
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isIdentifier(String token) {
+        return token.startsWith("\"") || Character.isLetter(token.charAt(0)) || token.charAt(0) == '_';
+    }
+
+    private static String unquoteIdentifier(String token) {
+        String name = token.startsWith("\"") ? token.substring(1, token.length() - 1).replace("\"\"", "\"") : token;
+        // Qualified names (t.col) are matched on the column part
+        int dot = name.lastIndexOf('.');
+        return (dot >= 0 ? name.substring(dot + 1) : name).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isLiteral(String token) {
+        return token.startsWith("'") || isNumber(token);
+    }
+
+    private static String literal(String token) {
+        if (token.startsWith("'")) {
+            return token.substring(1, token.length() - 1).replace("''", "'");
+        }
+        return token;
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int compareNumbers(String actual, String expected) {
+        return Double.compare(Double.parseDouble(actual), Double.parseDouble(expected));
+    }
+
+    private static boolean isNumericType(String type) {
+        if (type == null) {
+            return false;
+        }
+        String upper = type.toUpperCase(Locale.ROOT);
+        return upper.endsWith("INT") || upper.equals("INTEGER") || upper.startsWith("DECIMAL")
+            || upper.startsWith("NUMERIC") || upper.equals("FLOAT") || upper.equals("DOUBLE") || upper.equals("REAL");
+    }
+}
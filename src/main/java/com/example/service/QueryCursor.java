@@ -0,0 +1,166 @@
+package com.example.service;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Forward-only cursor over a live DuckDB ResultSet.
+ * Rows are read one at a time, so memory stays flat regardless of result size.
+ */
+public class QueryCursor implements Iterator<String[]>, AutoCloseable {
+    /**
+     * Told how many rows were read, and whether the query failed or was aborted, when the cursor closes
+     */
+    @FunctionalInterface
+    interface CloseListener {
+        void closed(long rows, boolean failed);
+    }
+
+    private final Statement statement;
+    private final boolean closeStatement;
+    private final ResultSet resultSet;
+    private final String[] headers;
+    private final int columnCount;
+    private boolean hasNextRow;
+    private boolean advanced;
+    private long rowCount;
+    private boolean closed;
+    private boolean failed;
+    private CloseListener closeListener;
+
+    QueryCursor(Statement statement, ResultSet resultSet) throws SQLException {
+        this(statement, resultSet, true);
+    }
+
+    /**
+     * Cursor over a result of a statement the caller keeps open (e.g. a cached prepared statement)
+     * when closeStatement is false
+     */
+    QueryCursor(Statement statement, ResultSet resultSet, boolean closeStatement) throws SQLException {
+        this.statement = statement;
+        this.closeStatement = closeStatement;
+        this.resultSet = resultSet;
+
+        ResultSetMetaData metadata = resultSet.getMetaData();
+        this.columnCount = metadata.getColumnCount();
+        this.headers = new String[columnCount];
+        for (int i = 1; i <= columnCount; i++) {
+            headers[i - 1] = metadata.getColumnName(i);
+        }
+    }
+
+    /**
+     * Call the listener with the number of rows read when the cursor is closed
+     */
+    QueryCursor onClose(CloseListener listener) {
+        this.closeListener = listener;
+        return this;
+    }
+
+    /**
+     * Column names of the result
+     */
+    public String[] getHeaders() {
+        return headers.clone();
+    }
+
+    /**
+     * Number of rows returned by next() so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        if (!advanced) {
+            try {
+                hasNextRow = resultSet.next();
+            } catch (SQLException e) {
+                failed = true;
+                throw new IllegalStateException("Failed to advance query cursor", e);
+            }
+            advanced = true;
+            if (!hasNextRow) {
+                close();
+            }
+        }
+        return hasNextRow;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        advanced = false;
+
+        String[] row = new String[columnCount];
+        try {
+            for (int i = 1; i <= columnCount; i++) {
+                row[i - 1] = resultSet.getString(i);
+            }
+        } catch (SQLException e) {
+            failed = true;
+            throw new IllegalStateException("Failed to read row from query cursor", e);
+        }
+        rowCount++;
+        return row;
+    }
+
+    /**
+     * Data rows as a sequential Stream; closing the stream closes the cursor
+     */
+    public Stream<String[]> stream() {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false
+        ).onClose(this::close);
+    }
+
+    /**
+     * Close a cursor whose query was cancelled or cut short, so it is recorded as an error
+     * rather than as a completed query
+     */
+    public void abort() {
+        failed = true;
+        close();
+    }
+
+    /**
+     * Release the ResultSet and, if owned, the Statement
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            resultSet.close();
+        } catch (SQLException ignored) {
+            // statement close below releases the native result as well
+        }
+        if (closeStatement) {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // nothing left to release
+            }
+        }
+        if (closeListener != null) {
+            closeListener.closed(rowCount, failed);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of prepared statements on one connection, keyed by SQL text (the query shape).
+ * Values are bound as parameters, so repeated shapes skip parsing and planning; DuckDB rebinds
+ * a cached plan by itself when the tables it reads are recreated.
+ */
+public class StatementCache implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    /**
+     * Cache counters; planningNanos is the total time spent preparing statements on misses
+     */
+    public record Stats(long hits, long misses, long evictions, int size, long planningNanos) {
+
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+
+        public double averagePlanningMillis() {
+            return misses == 0 ? 0.0 : planningNanos / 1_000_000.0 / misses;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%% hit rate), %d evictions, %d cached, %.3f ms avg planning",
+                hits, misses, hitRate() * 100, evictions, size, averagePlanningMillis());
+        }
+    }
+
+    private final Connection connection;
+    private final int maxSize;
+    private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long planningNanos;
+
+    public StatementCache(Connection connection, int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Statement cache size must be positive: " + maxSize);
+        }
+        this.connection = connection;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the cached statement for the SQL, preparing it on a miss.
+     * DuckDB closes a statement whose execution failed, so closed entries are prepared again.
+     */
+    public synchronized PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hits++;
+            return statement;
+        }
+
+        misses++;
+        long start = System.nanoTime();
+        statement = connection.prepareStatement(sql);
+        planningNanos += System.nanoTime() - start;
+        statements.put(sql, statement);
+
+        if (statements.size() > maxSize) {
+            Iterator<Map.Entry<String, PreparedStatement>> eldest = statements.entrySet().iterator();
+            closeQuietly(eldest.next().getValue());
+            eldest.remove();
+            evictions++;
+        }
+        return statement;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, statements.size(), planningNanos);
+    }
+
+    /**
+     * Close every cached statement
+     */
+    @Override
+    public synchronized void close() {
+        for (PreparedStatement statement : statements.values()) {
+            closeQuietly(statement);
+        }
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.warn("Error closing cached statement", e);
+        }
+    }
+}
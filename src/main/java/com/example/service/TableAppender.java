@@ -0,0 +1,142 @@
+package com.example.service;
+
+import org.duckdb.DuckDBAppender;
+import org.duckdb.DuckDBConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+
+/**
+ * Bulk row writer backed by DuckDB's native appender.
+ * Values go straight into DuckDB's column vectors, with no SQL parsing and no CSV round trip.
+ * Rows become visible to queries when a batch is flushed and on close.
+ * Each appender owns its connection to the database, so loading does not tie up
+ * the service's primary connection. Not thread-safe; use one appender per loading thread.
+ */
+public class TableAppender implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TableAppender.class);
+
+    public static final int DEFAULT_BATCH_SIZE = 100_000;
+
+    private final DuckDBConnection connection;
+    private final DuckDBAppender appender;
+    private final String tableName;
+    private final int columnCount;
+    private final int batchSize;
+    private long rowCount;
+    private int pendingRows;
+
+    TableAppender(DuckDBConnection connection, String tableName, int columnCount, int batchSize) throws SQLException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.connection = connection;
+        this.appender = connection.createAppender(DuckDBConnection.DEFAULT_SCHEMA, tableName);
+        this.tableName = tableName;
+        this.columnCount = columnCount;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Number of rows appended so far
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Append one row; values must be given in table column order.
+     * Supported types are Long, Integer, Short, Byte, Double, Float, Boolean, String,
+     * LocalDate, LocalDateTime, BigDecimal and null; strings are cast to the column type.
+     */
+    public void appendRow(Object... values) throws SQLException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException(String.format(
+                "Row has %d values but table %s has %d columns", values.length, tableName, columnCount
+            ));
+        }
+
+        appender.beginRow();
+        for (Object value : values) {
+            appendValue(value);
+        }
+        appender.endRow();
+
+        rowCount++;
+        if (++pendingRows >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Append every row from the iterator
+     *
+     * @return number of rows appended
+     */
+    public long appendRows(Iterator<? extends Object[]> rows) throws SQLException {
+        long before = rowCount;
+        while (rows.hasNext()) {
+            appendRow(rows.next());
+        }
+        return rowCount - before;
+    }
+
+    /**
+     * Write buffered rows to the table
+     */
+    public void flush() throws SQLException {
+        if (pendingRows > 0) {
+            appender.flush();
+            pendingRows = 0;
+        }
+    }
+
+    private void appendValue(Object value) throws SQLException {
+        if (value == null) {
+            appender.append((String) null);
+        } else if (value instanceof Long v) {
+            appender.append(v.longValue());
+        } else if (value instanceof Integer v) {
+            appender.append(v.intValue());
+        } else if (value instanceof Double v) {
+            appender.append(v.doubleValue());
+        } else if (value instanceof String v) {
+            appender.append(v);
+        } else if (value instanceof Short v) {
+            appender.append(v.shortValue());
+        } else if (value instanceof Byte v) {
+            appender.append(v.byteValue());
+        } else if (value instanceof Float v) {
+            appender.append(v.floatValue());
+        } else if (value instanceof Boolean v) {
+            appender.append(v.booleanValue());
+        } else if (value instanceof LocalDateTime v) {
+            appender.appendLocalDateTime(v);
+        } else if (value instanceof LocalDate v) {
+            // The appender has no DATE overload; DuckDB casts the ISO string to the column type
+            appender.append(v.toString());
+        } else if (value instanceof BigDecimal v) {
+            appender.append(v.toPlainString());
+        } else {
+            throw new IllegalArgumentException("Unsupported value type for " + tableName + ": " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Flush remaining rows and release the appender and its connection
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            appender.close();
+        } finally {
+            connection.close();
+        }
+        logger.info("Appended {} rows into table {}", rowCount, tableName);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.service;
+
+/**
+ * Size and timing of a single object transfer
+ */
+public record TransferStats(String objectName, long bytes, long elapsedNanos) {
+
+    public double elapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /**
+     * Throughput in MiB per second
+     */
+    public double throughputMiBPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return (bytes / (1024.0 * 1024.0)) / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d bytes in %.1f ms (%.1f MiB/s)",
+            objectName, bytes, elapsedMillis(), throughputMiBPerSecond());
+    }
+}
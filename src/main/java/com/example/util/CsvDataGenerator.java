@@ -3,72 +3,70 @@ package com.example.util;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
- * Utility class to generate sample CSV data for testing
+ * Utility class to generate sample CSV data for testing.
+ * The write* methods stream rows straight to an OutputStream without building the
+ * file in memory; output is fully determined by the seed and base date.
  */
 public class CsvDataGenerator {
-    private static final Random random = new Random();
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int SALES_DATE_RANGE_DAYS = 30;
+
+    private static final String[] CUSTOMERS = {"Nguyen Van A", "Tran Thi B", "Le Van C", "Pham Thi D", "Hoang Van E"};
+    private static final String[] PRODUCTS = {"Laptop", "Mouse", "Keyboard", "Monitor", "USB Drive", "Headphone", "Webcam"};
+    private static final int[] PRICES = {15000000, 200000, 500000, 3000000, 100000, 800000, 1200000};
+    private static final String[] CITIES = {"Ha Noi", "Ho Chi Minh", "Da Nang", "Can Tho", "Hai Phong"};
+    private static final String[] DEPARTMENTS = {"IT", "Sales", "Marketing", "HR", "Finance"};
+    private static final String[] METRICS = {"revenue", "users", "orders", "pageviews"};
+    private static final int[] METRIC_BASE_VALUES = {10000000, 1000, 500, 50000};
+
+    /**
+     * Column names and DuckDB types of the sales rows, matching what read_csv_auto infers for the CSV
+     */
+    public static final Map<String, String> SALES_COLUMNS = salesColumns();
 
     /**
      * Generate sales data CSV
      */
     public static String generateSalesData(int numRecords) throws IOException {
-        StringWriter sw = new StringWriter();
-        CSVPrinter csvPrinter = new CSVPrinter(sw, CSVFormat.DEFAULT
-            .withHeader("order_id", "customer_name", "product", "quantity", "price", "order_date"));
-
-        String[] customers = {"Nguyen Van A", "Tran Thi B", "Le Van C", "Pham Thi D", "Hoang Van E"};
-        String[] products = {"Laptop", "Mouse", "Keyboard", "Monitor", "USB Drive", "Headphone", "Webcam"};
-        int[] prices = {15000000, 200000, 500000, 3000000, 100000, 800000, 1200000};
-
-        for (int i = 1; i <= numRecords; i++) {
-            int productIndex = random.nextInt(products.length);
-            csvPrinter.printRecord(
-                i,
-                customers[random.nextInt(customers.length)],
-                products[productIndex],
-                random.nextInt(10) + 1,
-                prices[productIndex],
-                LocalDate.now().minusDays(random.nextInt(30)).toString()
-            );
-        }
-
-        csvPrinter.flush();
-        return sw.toString();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeSalesData(out, numRecords, randomSeed(), LocalDate.now());
+        return out.toString(StandardCharsets.UTF_8);
     }
 
     /**
      * Generate employee data CSV
      */
     public static String generateEmployeeData(int numRecords) throws IOException {
-        StringWriter sw = new StringWriter();
-        CSVPrinter csvPrinter = new CSVPrinter(sw, CSVFormat.DEFAULT
-            .withHeader("id", "name", "age", "city", "salary", "department"));
-
-        String[] cities = {"Ha Noi", "Ho Chi Minh", "Da Nang", "Can Tho", "Hai Phong"};
-        String[] departments = {"IT", "Sales", "Marketing", "HR", "Finance"};
-
-        for (int i = 1; i <= numRecords; i++) {
-            csvPrinter.printRecord(
-                i,
-                "Employee_" + i,
-                20 + random.nextInt(40),
-                cities[random.nextInt(cities.length)],
-                5000000 + random.nextInt(15000000),
-                departments[random.nextInt(departments.length)]
-            );
-        }
-
-        csvPrinter.flush();
-        return sw.toString();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeEmployeeData(out, numRecords, randomSeed());
+        return out.toString(StandardCharsets.UTF_8);
     }
 
     /**
@@ -101,33 +99,142 @@ public class CsvDataGenerator {
      * Generate time series data CSV
      */
     public static String generateTimeSeriesData(int numDays) throws IOException {
-        StringWriter sw = new StringWriter();
-        CSVPrinter csvPrinter = new CSVPrinter(sw, CSVFormat.DEFAULT
-            .withHeader("date", "metric", "value"));
-
-        LocalDate startDate = LocalDate.now().minusDays(numDays);
-        String[] metrics = {"revenue", "users", "orders", "pageviews"};
-
-        for (int i = 0; i < numDays; i++) {
-            LocalDate date = startDate.plusDays(i);
-            for (String metric : metrics) {
-                int baseValue = switch (metric) {
-                    case "revenue" -> 10000000;
-                    case "users" -> 1000;
-                    case "orders" -> 500;
-                    case "pageviews" -> 50000;
-                    default -> 0;
-                };
-                csvPrinter.printRecord(
-                    date.toString(),
-                    metric,
-                    baseValue + random.nextInt(baseValue / 2)
-                );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeTimeSeriesData(out, numDays, randomSeed(), LocalDate.now().minusDays(numDays));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stream sales data CSV (header plus numRecords rows) to out; order dates fall in
+     * the 30 days up to baseDate. The stream is flushed but not closed.
+     */
+    public static void writeSalesData(OutputStream out, long numRecords, long seed, LocalDate baseDate) throws IOException {
+        AsciiCsvWriter writer = new AsciiCsvWriter(out);
+        writer.header("order_id", "customer_name", "product", "quantity", "price", "order_date");
+        writeSalesRows(writer, 1, numRecords, partitionRandom(seed, 0), salesDates(baseDate));
+        writer.flush();
+    }
+
+    /**
+     * Stream employee data CSV to out. The stream is flushed but not closed.
+     */
+    public static void writeEmployeeData(OutputStream out, long numRecords, long seed) throws IOException {
+        SplittableRandom random = partitionRandom(seed, 0);
+        byte[] namePrefix = ascii("Employee_");
+        AsciiCsvWriter writer = new AsciiCsvWriter(out);
+        writer.header("id", "name", "age", "city", "salary", "department");
+
+        byte[][] cities = ascii(CITIES);
+        byte[][] departments = ascii(DEPARTMENTS);
+        for (long i = 1; i <= numRecords; i++) {
+            writer.field(i);
+            writer.separator();
+            writer.raw(namePrefix);
+            writer.number(i);
+            writer.separator();
+            writer.field(20 + random.nextInt(40));
+            writer.separator();
+            writer.field(cities[random.nextInt(cities.length)]);
+            writer.separator();
+            writer.field(5000000 + random.nextInt(15000000));
+            writer.separator();
+            writer.field(departments[random.nextInt(departments.length)]);
+            writer.endRow();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Stream time series CSV (4 metrics per day from startDate) to out.
+     * The stream is flushed but not closed.
+     */
+    public static void writeTimeSeriesData(OutputStream out, long numDays, long seed, LocalDate startDate) throws IOException {
+        AsciiCsvWriter writer = new AsciiCsvWriter(out);
+        writer.header("date", "metric", "value");
+        writeTimeSeriesRows(writer, startDate, numDays, partitionRandom(seed, 0));
+        writer.flush();
+    }
+
+    /**
+     * Write sales data as numPartitions CSV files (part-00000.csv, ...) generated in parallel.
+     * Each partition has its own RNG derived from the seed, so the output does not depend on
+     * thread scheduling; order_id values are contiguous across partitions.
+     */
+    public static List<Path> writeSalesPartitions(Path directory, long totalRecords, int numPartitions,
+                                                  long seed, LocalDate baseDate) throws IOException {
+        byte[][] dates = salesDates(baseDate);
+        return writePartitions(directory, totalRecords, numPartitions, seed, (writer, first, last, random) -> {
+            writer.header("order_id", "customer_name", "product", "quantity", "price", "order_date");
+            writeSalesRows(writer, first, last, random, dates);
+        });
+    }
+
+    /**
+     * Write time series data for numDays days as numPartitions CSV files generated in parallel;
+     * each partition covers a contiguous range of days
+     */
+    public static List<Path> writeTimeSeriesPartitions(Path directory, long numDays, int numPartitions,
+                                                       long seed, LocalDate startDate) throws IOException {
+        return writePartitions(directory, numDays, numPartitions, seed, (writer, first, last, random) -> {
+            writer.header("date", "metric", "value");
+            writeTimeSeriesRows(writer, startDate.plusDays(first - 1), last - first + 1, random);
+        });
+    }
+
+    /**
+     * Sales data as an InputStream produced on a background thread, e.g. for
+     * MinioService.uploadStream; only a small pipe buffer is held in memory
+     */
+    public static InputStream salesDataStream(long numRecords, long seed, LocalDate baseDate) throws IOException {
+        PipedInputStream in = new PipedInputStream(BUFFER_SIZE);
+        PipedOutputStream out = new PipedOutputStream(in);
+        Thread.ofVirtual().name("csv-generator").start(() -> {
+            try {
+                writeSalesData(out, numRecords, seed, baseDate);
+                out.close();
+            } catch (IOException e) {
+                // Leave the pipe open: once this thread ends the reader fails with "Write end dead"
+                // instead of seeing a truncated stream as a clean end of file
             }
+        });
+        return in;
+    }
+
+    /**
+     * Typed sales rows (Long, String, String, Long, Long, LocalDate) for bulk appends,
+     * e.g. DuckDBService.appendRows; the values match writeSalesData for the same seed
+     */
+    public static Iterator<Object[]> salesRows(long numRecords, long seed, LocalDate baseDate) {
+        SplittableRandom random = partitionRandom(seed, 0);
+        LocalDate[] dates = new LocalDate[SALES_DATE_RANGE_DAYS];
+        for (int i = 0; i < SALES_DATE_RANGE_DAYS; i++) {
+            dates[i] = baseDate.minusDays(i);
         }
 
-        csvPrinter.flush();
-        return sw.toString();
+        return new Iterator<>() {
+            private long id = 1;
+
+            @Override
+            public boolean hasNext() {
+                return id <= numRecords;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int productIndex = random.nextInt(PRODUCTS.length);
+                return new Object[]{
+                    id++,
+                    CUSTOMERS[random.nextInt(CUSTOMERS.length)],
+                    PRODUCTS[productIndex],
+                    (long) random.nextInt(10) + 1,
+                    (long) PRICES[productIndex],
+                    dates[random.nextInt(dates.length)]
+                };
+            }
+        };
     }
 
     /**
@@ -138,5 +245,212 @@ public class CsvDataGenerator {
             writer.write(csvContent);
         }
     }
-}
 
+    /**
+     * Writes the rows for units first..last (1-based, inclusive) of one partition
+     */
+    @FunctionalInterface
+    private interface RangeWriter {
+        void write(AsciiCsvWriter writer, long first, long last, SplittableRandom random) throws IOException;
+    }
+
+    private static List<Path> writePartitions(Path directory, long totalUnits, int numPartitions,
+                                              long seed, RangeWriter rangeWriter) throws IOException {
+        Files.createDirectories(directory);
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(numPartitions, Runtime.getRuntime().availableProcessors())
+        );
+
+        try {
+            List<Path> files = new ArrayList<>(numPartitions);
+            List<Future<?>> tasks = new ArrayList<>(numPartitions);
+            for (int partition = 0; partition < numPartitions; partition++) {
+                long first = totalUnits * partition / numPartitions + 1;
+                long last = totalUnits * (partition + 1) / numPartitions;
+                Path file = directory.resolve(String.format("part-%05d.csv", partition));
+                SplittableRandom random = partitionRandom(seed, partition);
+                files.add(file);
+
+                tasks.add(executor.submit(() -> {
+                    try (OutputStream out = Files.newOutputStream(file)) {
+                        AsciiCsvWriter writer = new AsciiCsvWriter(out);
+                        rangeWriter.write(writer, first, last, random);
+                        writer.flush();
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+            return files;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating partitions", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeTimeSeriesRows(AsciiCsvWriter writer, LocalDate startDate, long numDays,
+                                            SplittableRandom random) throws IOException {
+        byte[][] metrics = ascii(METRICS);
+        LocalDate date = startDate;
+        for (long day = 0; day < numDays; day++) {
+            byte[] dateBytes = ascii(date.toString());
+            for (int m = 0; m < metrics.length; m++) {
+                writer.field(dateBytes);
+                writer.separator();
+                writer.field(metrics[m]);
+                writer.separator();
+                writer.field(METRIC_BASE_VALUES[m] + random.nextInt(METRIC_BASE_VALUES[m] / 2));
+                writer.endRow();
+            }
+            date = date.plusDays(1);
+        }
+    }
+
+    private static void writeSalesRows(AsciiCsvWriter writer, long firstId, long lastId,
+                                       SplittableRandom random, byte[][] dates) throws IOException {
+        byte[][] customers = ascii(CUSTOMERS);
+        byte[][] products = ascii(PRODUCTS);
+        for (long id = firstId; id <= lastId; id++) {
+            int productIndex = random.nextInt(products.length);
+            writer.field(id);
+            writer.separator();
+            writer.field(customers[random.nextInt(customers.length)]);
+            writer.separator();
+            writer.field(products[productIndex]);
+            writer.separator();
+            writer.field(random.nextInt(10) + 1);
+            writer.separator();
+            writer.field(PRICES[productIndex]);
+            writer.separator();
+            writer.field(dates[random.nextInt(dates.length)]);
+            writer.endRow();
+        }
+    }
+
+    // Order date strings, computed once per call instead of once per row
+    private static byte[][] salesDates(LocalDate baseDate) {
+        byte[][] dates = new byte[SALES_DATE_RANGE_DAYS][];
+        for (int i = 0; i < SALES_DATE_RANGE_DAYS; i++) {
+            dates[i] = ascii(baseDate.minusDays(i).toString());
+        }
+        return dates;
+    }
+
+    private static Map<String, String> salesColumns() {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("order_id", "BIGINT");
+        columns.put("customer_name", "VARCHAR");
+        columns.put("product", "VARCHAR");
+        columns.put("quantity", "BIGINT");
+        columns.put("price", "BIGINT");
+        columns.put("order_date", "DATE");
+        return Collections.unmodifiableMap(columns);
+    }
+
+    private static SplittableRandom partitionRandom(long seed, int partition) {
+        return new SplittableRandom(seed + partition * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long randomSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[][] ascii(String[] values) {
+        byte[][] encoded = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = ascii(values[i]);
+        }
+        return encoded;
+    }
+
+    /**
+     * Buffered CSV writer for pre-encoded ASCII values that never need quoting
+     */
+    private static final class AsciiCsvWriter {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] digits = new byte[20];
+        private int position;
+
+        AsciiCsvWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void header(String... names) throws IOException {
+            for (int i = 0; i < names.length; i++) {
+                if (i > 0) {
+                    separator();
+                }
+                raw(ascii(names[i]));
+            }
+            endRow();
+        }
+
+        void field(byte[] value) throws IOException {
+            raw(value);
+        }
+
+        void field(long value) throws IOException {
+            number(value);
+        }
+
+        void separator() throws IOException {
+            put((byte) ',');
+        }
+
+        void endRow() throws IOException {
+            put((byte) '\n');
+        }
+
+        void raw(byte[] value) throws IOException {
+            if (position + value.length > buffer.length) {
+                drain();
+            }
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+        }
+
+        // Format without allocating a String; values are non-negative
+        void number(long value) throws IOException {
+            int length = 0;
+            do {
+                digits[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            if (position + length > buffer.length) {
+                drain();
+            }
+            while (length > 0) {
+                buffer[position++] = digits[--length];
+            }
+        }
+
+        void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        private void put(byte b) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = b;
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
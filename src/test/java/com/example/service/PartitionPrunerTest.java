@@ -0,0 +1,126 @@
+package com.example.service;
+
+import com.example.service.PartitionPruner.Comparison;
+import com.example.service.PartitionPruner.Predicate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionPrunerTest {
+
+    private static final String SEPT = "sales/month=9/data_0.parquet";
+    private static final String OCT = "sales/month=10/data_0.parquet";
+    private static final String JULY = "sales/month=07/data_0.parquet";
+    private static final List<String> MONTHS = List.of(SEPT, OCT, JULY);
+
+    @Test
+    void tokenizesOperatorsLiteralsAndPunctuation() {
+        assertEquals(List.of("a", "<=", "1", "AND", "b", "<>", "'x y'", "AND", "c", "!=", "2"),
+            PartitionPruner.tokenize("a<=1 AND b <> 'x y' AND c!=2"));
+        assertEquals(List.of("d", "IN", "(", "'a'", ",", "'b'", ")"),
+            PartitionPruner.tokenize("d IN ('a','b')"));
+    }
+
+    @Test
+    void tokenizesDoubledQuotesInsideLiterals() {
+        assertEquals(List.of("name", "=", "'it''s'"), PartitionPruner.tokenize("name = 'it''s'"));
+        assertEquals(List.of("\"Order \"\"Date\"\"\"", ">", "'2024-01-15'"),
+            PartitionPruner.tokenize("\"Order \"\"Date\"\"\" > '2024-01-15'"));
+    }
+
+    @Test
+    void parsesAndedComparisons() {
+        List<Predicate> predicates = PartitionPruner.parse(
+            "t.Region = 'EU' AND order_date BETWEEN DATE '2024-01-01' AND DATE '2024-01-31' AND month IN (1, 2)");
+
+        assertEquals(List.of(
+            new Predicate("region", "=", List.of("EU"), Comparison.EITHER),
+            new Predicate("order_date", "BETWEEN", List.of("2024-01-01", "2024-01-31"), Comparison.EITHER),
+            new Predicate("month", "IN", List.of("1", "2"), Comparison.NUMERIC)
+        ), predicates);
+    }
+
+    @Test
+    void unescapesQuotedLiterals() {
+        assertEquals(List.of(new Predicate("name", "=", List.of("it's"), Comparison.EITHER)),
+            PartitionPruner.parse("name = 'it''s'"));
+    }
+
+    @Test
+    void skipsClausesWithOrOrNot() {
+        assertTrue(PartitionPruner.parse("month = 9 OR month = 10").isEmpty());
+        assertTrue(PartitionPruner.parse("NOT month = 9").isEmpty());
+    }
+
+    @Test
+    void ignoresConjunctsThatAreNotColumnLiteralComparisons() {
+        assertEquals(List.of(new Predicate("month", "=", List.of("9"), Comparison.NUMERIC)),
+            PartitionPruner.parse("amount > price AND month = 9 AND upper(region) = 'EU'"));
+    }
+
+    @Test
+    void extractsPartitionValuesFromDirectoriesOnly() {
+        assertEquals(Map.of("order_date", "2024-01-15", "region", "EU"),
+            PartitionPruner.partitionValues("sales/order_date=2024-01-15/Region=EU/part=1.parquet"));
+    }
+
+    @Test
+    void comparesUnquotedNumbersNumerically() {
+        assertEquals(List.of(SEPT, JULY), PartitionPruner.prune(MONTHS, "month < 10"));
+        assertEquals(List.of(OCT, JULY), PartitionPruner.prune(MONTHS, "month IN (7, 10)"));
+        assertEquals(List.of(SEPT), PartitionPruner.prune(MONTHS, "month BETWEEN 8 AND 9"));
+    }
+
+    @Test
+    void keepsKeysMatchingQuotedNumbersEitherWayWhenTypeIsUnknown() {
+        // DuckDB reads month as BIGINT, so both predicates match month=9
+        assertEquals(List.of(SEPT, JULY), PartitionPruner.prune(MONTHS, "month < '10'"));
+        assertEquals(List.of(SEPT), PartitionPruner.prune(MONTHS, "month = '09'"));
+    }
+
+    @Test
+    void comparesNumericColumnsAsNumbers() {
+        Map<String, String> types = Map.of("month", "BIGINT");
+        assertEquals(List.of(SEPT, JULY), PartitionPruner.prune(MONTHS, "month < '10'", types));
+        assertEquals(List.of(JULY), PartitionPruner.prune(MONTHS, "month = '7'", types));
+    }
+
+    @Test
+    void comparesQuotedLiteralsOnVarcharColumnsAsStrings() {
+        Map<String, String> types = Map.of("month", "VARCHAR");
+        assertEquals(List.of(JULY), PartitionPruner.prune(MONTHS, "month = '07'", types));
+        assertEquals(List.of(OCT, JULY), PartitionPruner.prune(MONTHS, "month < '9'", types));
+    }
+
+    @Test
+    void keepsKeysThatCannotBeComparedAsNumbers() {
+        List<String> keys = List.of("sales/month=9/a.parquet", "sales/month=unknown/b.parquet");
+        assertEquals(keys, PartitionPruner.prune(keys, "month >= 1"));
+    }
+
+    @Test
+    void comparesDatesAsStrings() {
+        List<String> keys = List.of(
+            "sales/order_date=2024-01-14/a.parquet",
+            "sales/order_date=2024-01-15/b.parquet",
+            "sales/order_date=2024-02-01/c.parquet");
+        assertEquals(List.of(keys.get(1)),
+            PartitionPruner.prune(keys, "order_date BETWEEN DATE '2024-01-15' AND DATE '2024-01-31'"));
+    }
+
+    @Test
+    void keepsKeysWithoutThePartitionColumn() {
+        List<String> keys = List.of("sales/region=EU/a.parquet", "sales/b.parquet");
+        assertEquals(List.of(keys.get(1)), PartitionPruner.prune(keys, "region = 'US'"));
+    }
+
+    @Test
+    void returnsAllKeysWithoutPrunablePredicates() {
+        assertEquals(MONTHS, PartitionPruner.prune(MONTHS, null));
+        assertEquals(MONTHS, PartitionPruner.prune(MONTHS, "month = 9 OR month = 10"));
+    }
+}